@@ -0,0 +1,32 @@
+#!/bin/sh
+# Starts the application from the layout built by scripts/train-cds.sh, in the
+# current directory's data files.
+#   scripts/run-fast.sh server   REST API, with Spring AOT initializers
+#   scripts/run-fast.sh console  console menus, with history, analytics and
+#                                audit loaded after the first menu is shown
+# The class-data archive is used when it exists; JAVA_OPTS adds JVM options.
+app="$(cd "$(dirname "$0")/.." && pwd)/target/fast-startup/MCQ-0.0.1-SNAPSHOT.jar"
+if [ ! -f "$app" ]; then
+	echo "Error: $app not found; run scripts/train-cds.sh first." >&2
+	exit 1
+fi
+
+mode=${1:-console}
+[ $# -gt 0 ] && shift
+cds=
+case "$mode" in
+	server)
+		[ -f "$app.server.jsa" ] && cds="-XX:SharedArchiveFile=$app.server.jsa"
+		exec java $cds -Dspring.aot.enabled=true -Dmcq.startup.deferred=true $JAVA_OPTS -jar "$app" "$@"
+		;;
+	console)
+		# A console session is short and mostly waits for input, so the C2 compiler rarely pays off
+		[ -f "$app.console.jsa" ] && cds="-XX:SharedArchiveFile=$app.console.jsa"
+		exec java $cds -XX:TieredStopAtLevel=1 -Dmcq.startup.deferred=true $JAVA_OPTS \
+			-cp "$app" com.quiz_App.MCQApplication "$@"
+		;;
+	*)
+		echo "Usage: $0 [server|console] [arguments...]" >&2
+		exit 1
+		;;
+esac
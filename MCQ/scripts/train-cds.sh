@@ -0,0 +1,33 @@
+#!/bin/sh
+# Builds the fast-startup layout in target/fast-startup: the jar with Spring AOT
+# initializers, extracted for class-data sharing, and one AppCDS archive per
+# entry point, each dumped at the end of a training run. Run scripts/run-fast.sh
+# afterwards. Rebuild the archives whenever the jar or the JDK changes.
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q -Pfast-startup -DskipTests package
+
+out=target/fast-startup
+rm -rf "$out"
+java -Djarmode=tools -jar target/MCQ-0.0.1-SNAPSHOT.jar extract --destination "$out"
+jar="$(pwd)/$out/MCQ-0.0.1-SNAPSHOT.jar"
+
+# Training runs use a scratch data directory so the real bank is left alone
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+# REST server: refresh the context, which loads every bean class, then exit
+(cd "$work" && java -XX:ArchiveClassesAtExit="$jar.server.jsa" -Dspring.aot.enabled=true \
+	-Dspring.context.exit=onRefresh -jar "$jar" > /dev/null)
+
+# Console: import a small bank, list it, take a quiz and look at the history
+i=0
+while [ $i -lt 200 ]; do
+	echo "Training question $i?|first $i|second|third|fourth|A|Category$((i % 5))|Easy"
+	i=$((i + 1))
+done > "$work/training.txt"
+(cd "$work" && printf '%s\n' 1 9 training.txt 4 '' n 11 15 2 1 '' '' 5 A B A B A 3 4 3 |
+	java -XX:ArchiveClassesAtExit="$jar.console.jsa" -cp "$jar" com.quiz_App.MCQApplication > /dev/null)
+
+echo "Class-data archives written to $out"
@@ -0,0 +1,182 @@
+package com.quiz_App.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.quiz_App.BinaryQuestionStore;
+import com.quiz_App.CommandOptions;
+
+/**
+ * Load test for the REST quiz API of a running server.
+ *
+ * <pre>
+ * # a bank of 100000 questions in a working directory for the server
+ * java ... ApiLoadTest --write-bank /tmp/mcq-load --size 100000
+ * (cd /tmp/mcq-load &amp;&amp; java -jar .../MCQ-0.0.1-SNAPSHOT.jar)
+ *
+ * # 30 seconds of 64 clients listing questions, or taking 5-question quizzes
+ * java ... ApiLoadTest --url http://localhost:8080 --clients 64 --seconds 30 --mode questions
+ * java ... ApiLoadTest --url http://localhost:8080 --clients 64 --seconds 30 --mode quiz
+ * </pre>
+ *
+ * Run it from the benchmark profile, whose test classpath has this class:
+ * {@code mvn -Pbenchmark -DskipTests test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.quiz_App.benchmarks.ApiLoadTest
+ * -Dexec.args="--mode quiz"}.
+ * Prints requests per second and latency percentiles after a warm-up of
+ * a fifth of the run.
+ */
+public final class ApiLoadTest {
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final String[] CHOICES = {"A", "B", "C", "D"};
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String url;
+    private final String mode;
+    private final LongAdder failures = new LongAdder();
+
+    private ApiLoadTest(String url, String mode) {
+        this.url = url;
+        this.mode = mode;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandOptions options = CommandOptions.parse(String.join(" ", args));
+        if (options.has("write-bank")) {
+            Path dir = Paths.get(options.get("write-bank", "."));
+            int size = options.getInt("size", 100_000);
+            Files.createDirectories(dir);
+            BinaryQuestionStore.write(dir.resolve("mcq_data.bin"), SyntheticBank.questions(size));
+            System.out.println("Wrote " + size + " questions to " + dir.resolve("mcq_data.bin"));
+            return;
+        }
+
+        String mode = options.get("mode", "questions");
+        if (!mode.equals("questions") && !mode.equals("quiz")) {
+            throw new IllegalArgumentException("--mode expects questions or quiz, got: " + mode);
+        }
+        ApiLoadTest test = new ApiLoadTest(options.get("url", "http://localhost:8080"), mode);
+        test.run(options.getInt("clients", 64), options.getInt("seconds", 30));
+    }
+
+    private void run(int clients, int seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(seconds).toNanos() / 5;
+        long end = start + Duration.ofSeconds(seconds).toNanos();
+
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> latencies.add(drive(measureFrom, end)), "load-client-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (long[] samples : latencies) {
+            total += samples.length;
+        }
+        long[] all = new long[total];
+        int at = 0;
+        for (long[] samples : latencies) {
+            System.arraycopy(samples, 0, all, at, samples.length);
+            at += samples.length;
+        }
+        Arrays.sort(all);
+        double measured = (end - measureFrom) / 1e9;
+        System.out.printf("mode=%s clients=%d requests=%d failures=%d%n", mode, clients, total, failures.sum());
+        System.out.printf("throughput: %.0f requests/s%n", total / measured);
+        if (total > 0) {
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), all[total - 1] / 1e6);
+        }
+    }
+
+    // One client: sends requests until the end of the run, returning the latencies measured after warm-up
+    private long[] drive(long measureFrom, long end) {
+        long[] samples = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < end) {
+            List<Long> timings = mode.equals("quiz") ? takeQuiz() : listQuestions();
+            for (long timing : timings) {
+                if (System.nanoTime() >= measureFrom) {
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = timing;
+                }
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private List<Long> listQuestions() {
+        int offset = ThreadLocalRandom.current().nextInt(1000);
+        long[] timing = new long[1];
+        send(HttpRequest.newBuilder(URI.create(url + "/api/questions?offset=" + offset + "&limit=20")).GET(), timing);
+        return List.of(timing[0]);
+    }
+
+    // Starts a five-question quiz and answers it in one go
+    private List<Long> takeQuiz() {
+        long[] started = new long[1];
+        String quiz = send(post("/api/quizzes", "{\"count\":5}"), started);
+        Matcher id = quiz == null ? null : ID.matcher(quiz);
+        if (id == null || !id.find()) {
+            return List.of(started[0]);
+        }
+        StringJoiner answers = new StringJoiner("\",\"", "{\"answers\":[\"", "\"]}");
+        for (int i = 0; i < 5; i++) {
+            answers.add(CHOICES[ThreadLocalRandom.current().nextInt(CHOICES.length)]);
+        }
+        long[] answered = new long[1];
+        send(post("/api/quizzes/" + id.group(1) + "/answers", answers.toString()), answered);
+        return List.of(started[0], answered[0]);
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(url + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    // Sends a request and stores its latency in timing[0]; returns the body, or null if it failed
+    private String send(HttpRequest.Builder request, long[] timing) {
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            timing[0] = System.nanoTime() - begin;
+            if (response.statusCode() >= 400) {
+                failures.increment();
+                return null;
+            }
+            return response.body();
+        } catch (IOException e) {
+            timing[0] = System.nanoTime() - begin;
+            failures.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timing[0] = System.nanoTime() - begin;
+            return null;
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,97 @@
+package com.quiz_App.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.quiz_App.AttemptRecorder;
+import com.quiz_App.MCQApplication;
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+import com.quiz_App.QuizHistory;
+
+/**
+ * In-memory paths of the console app against a bank of {@code size}
+ * questions: quiz assembly with a category/difficulty filter, the quiz
+ * summary and the statistics screen. Console output is discarded, and
+ * quizzes are recorded only into a history of their own, so neither the
+ * analytics, ratings and audit log nor their growth show in the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankBenchmarks {
+    private static final int QUIZ_LENGTH = 10;
+    private static final int SUMMARY_LENGTH = 50;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    // Records into its history only
+    private static final class HistoryOnly extends AttemptRecorder {
+        HistoryOnly() {
+            super(new QuizHistory(), null, null, null);
+        }
+
+        @Override
+        public void record(QuizAttempt attempt, int[] responseMillis) {
+            history().record(attempt);
+        }
+    }
+
+    private PrintStream originalOut;
+    private String quizInput;
+    private QuizAttempt attempt;
+    private final HistoryOnly recorder = new HistoryOnly();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        MCQApplication.questions.clear();
+        MCQApplication.questions.addAll(SyntheticBank.questions(size));
+        MCQApplication.undoHistory.clear();
+
+        // Filter on one category and difficulty, then exit right after the first question
+        quizInput = SyntheticBank.category(3) + "\nHard\n" + QUIZ_LENGTH + "\nE\n";
+
+        Random random = new Random(42);
+        attempt = new QuizAttempt("", "");
+        for (int i = 0; i < SUMMARY_LENGTH; i++) {
+            Question question = MCQApplication.questions.get(random.nextInt(size));
+            char answer = (char) ('A' + random.nextInt(4));
+            attempt.addAnswer(question.getId(), answer, answer == question.getCorrectOption());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        MCQApplication.questions.clear();
+    }
+
+    @Benchmark
+    public int takeFilteredQuiz() {
+        MCQApplication.takeQuiz(new Scanner(quizInput), false, recorder);
+        int taken = recorder.history().size();
+        recorder.history().clear();
+        return taken;
+    }
+
+    @Benchmark
+    public void displayQuizSummary() {
+        MCQApplication.displayQuizSummary(attempt);
+    }
+
+    @Benchmark
+    public void viewStatistics() {
+        MCQApplication.viewStatistics();
+    }
+}
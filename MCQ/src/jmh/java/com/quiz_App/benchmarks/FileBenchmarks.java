@@ -0,0 +1,80 @@
+package com.quiz_App.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.quiz_App.BinaryQuestionStore;
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.QuestionImporter;
+import com.quiz_App.QuestionRepository;
+
+/**
+ * File paths against a bank of {@code size} questions: importing a
+ * question file, and writing and reopening the binary store that
+ * saveData/loadData use. Files live in a temporary directory, so the
+ * benchmarks never touch the data files in the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileBenchmarks {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path dir;
+    private Path importFile;
+    private Path storeFile;
+    private QuestionRepository bank;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mcq-bench");
+        importFile = dir.resolve("questions.txt");
+        SyntheticBank.writeRows(importFile, size);
+
+        bank = new QuestionRepository(SyntheticBank.questions(size));
+        storeFile = dir.resolve("mcq_data.bin");
+        BinaryQuestionStore.write(storeFile, bank);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int importQuestions() throws IOException {
+        QuestionRepository target = new QuestionRepository();
+        new QuestionImporter().importFile(importFile, target::addAll, null);
+        return target.size();
+    }
+
+    @Benchmark
+    public void saveData() throws IOException {
+        BinaryQuestionStore.write(dir.resolve("save.bin"), bank);
+    }
+
+    // Opening the store and then reading every question, as a full pass after loadData would
+    @Benchmark
+    public long loadData() throws IOException {
+        QuestionRepository target = new QuestionRepository();
+        target.attach(BinaryQuestionStore.open(storeFile));
+        long checksum = 0;
+        for (Question question : target) {
+            checksum += question.getCorrectOption();
+        }
+        return checksum;
+    }
+}
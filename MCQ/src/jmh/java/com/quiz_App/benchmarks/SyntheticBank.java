@@ -0,0 +1,48 @@
+package com.quiz_App.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Deterministic question banks for the benchmarks: the same size always
+ * yields the same questions, spread over 20 categories and 3 difficulties.
+ */
+final class SyntheticBank {
+    static final int CATEGORIES = 20;
+    static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    private SyntheticBank() {
+    }
+
+    static List<Question> questions(int size) {
+        Random random = new Random(size);
+        List<Question> bank = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] options = {"Option A " + i, "Option B " + i, "Option C " + i, "Option D " + i};
+            bank.add(new Question("Synthetic question " + i + "?", options,
+                (char) ('A' + random.nextInt(4)),
+                category(random.nextInt(CATEGORIES)),
+                DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]));
+        }
+        return bank;
+    }
+
+    static String category(int index) {
+        return "Category " + index;
+    }
+
+    // Writes the same bank in the import/export file format
+    static void writeRows(Path path, int size) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (Question q : questions(size)) {
+                writer.write(q.getQuestion() + "|" + String.join("|", q.getOptions()) + "|"
+                    + q.getCorrectOption() + "|" + q.getCategory() + "|" + q.getDifficultyLevel());
+                writer.newLine();
+            }
+        }
+    }
+}
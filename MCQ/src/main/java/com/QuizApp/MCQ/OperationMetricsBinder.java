@@ -0,0 +1,50 @@
+package com.QuizApp.MCQ;
+
+import java.util.concurrent.TimeUnit;
+
+import com.quiz_App.OperationMetrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes {@link OperationMetrics} to Micrometer. The meters read the
+ * application's own counters when the registry is scraped, so recording
+ * costs the same with or without a registry.
+ *
+ * Each timer becomes a function timer (count and total time), a gauge of
+ * its maximum, and a {@code .percentile} gauge tagged {@code phi} for the
+ * median and the 99th percentile.
+ */
+public class OperationMetricsBinder implements MeterBinder {
+	private static final double[] PERCENTILES = {0.5, 0.99};
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (OperationMetrics.Timer timer : OperationMetrics.timers()) {
+			FunctionTimer.builder(timer.name(), timer, OperationMetrics.Timer::count,
+					OperationMetrics.Timer::totalNanos, TimeUnit.NANOSECONDS)
+					.description(timer.description())
+					.register(registry);
+			TimeGauge.builder(timer.name() + ".max", timer, TimeUnit.NANOSECONDS, OperationMetrics.Timer::maxNanos)
+					.description(timer.description() + ", longest")
+					.register(registry);
+			for (double percentile : PERCENTILES) {
+				TimeGauge.builder(timer.name() + ".percentile", timer, TimeUnit.NANOSECONDS,
+						t -> t.percentileNanos(percentile))
+						.tag("phi", String.valueOf(percentile))
+						.description(timer.description() + ", percentile")
+						.register(registry);
+			}
+		}
+		for (OperationMetrics.Counter counter : OperationMetrics.counters()) {
+			FunctionCounter.builder(counter.name(), counter, OperationMetrics.Counter::count)
+					.description(counter.description())
+					.register(registry);
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.QuizApp.MCQ;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.quiz_App.MCQApplication;
+
+/**
+ * Serves the bank of the console application: it is loaded from the same
+ * files when the server starts, and saved when it stops.
+ */
+@Configuration
+public class QuizApiConfiguration {
+
+	@Bean(destroyMethod = "close")
+	public QuizService quizService(@Value("${mcq.api.session-timeout:30m}") Duration sessionTimeout,
+			@Value("${mcq.api.max-sessions:100000}") int maxSessions) {
+		MCQApplication.loadData();
+		return new QuizService(MCQApplication.questions, MCQApplication.categoryIndex, MCQApplication.attempts,
+				sessionTimeout, maxSessions, MCQApplication::shutdown);
+	}
+
+	// With -Dmcq.startup.deferred=true the records load while the rest of the
+	// context starts; this waits for them before the web server takes requests
+	@Bean
+	public SmartLifecycle deferredRecords() {
+		return new SmartLifecycle() {
+			private volatile boolean running;
+
+			@Override
+			public void start() {
+				MCQApplication.awaitRecords();
+				running = true;
+			}
+
+			@Override
+			public void stop() {
+				running = false;
+			}
+
+			@Override
+			public boolean isRunning() {
+				return running;
+			}
+
+			@Override
+			public int getPhase() {
+				return 0;
+			}
+		};
+	}
+
+	// Picked up by the actuator's meter registry
+	@Bean
+	public OperationMetricsBinder operationMetrics() {
+		return new OperationMetricsBinder();
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.QuizApp.MCQ;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.QuizApp.MCQ.QuizService.QuestionView;
+import com.QuizApp.MCQ.QuizService.QuizStatus;
+import com.QuizApp.MCQ.QuizService.QuizView;
+import com.quiz_App.QuizSummary;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * HTTP API of the quiz bank.
+ *
+ * <pre>
+ * GET  /api/questions?category=&amp;difficulty=&amp;offset=0&amp;limit=50
+ * POST /api/quizzes                 {"category": "", "difficulty": "", "count": 10}
+ * POST /api/quizzes/{id}/answers    {"answers": ["A", "S", "C"]}
+ * POST /api/quizzes/{id}/finish
+ * GET  /api/quizzes/{id}
+ * GET  /api/history?offset=0&amp;limit=50
+ * </pre>
+ *
+ * Reading and drawing questions only touches memory and runs on the event
+ * loop. Anything that can reach the history files runs on the bounded
+ * elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api")
+public class QuizController {
+	private static final int MAX_PAGE = 500;
+
+	public record StartRequest(String category, String difficulty, Integer count) {
+	}
+
+	public record AnswersRequest(List<String> answers) {
+	}
+
+	private final QuizService service;
+
+	public QuizController(QuizService service) {
+		this.service = service;
+	}
+
+	@GetMapping("/questions")
+	public Flux<QuestionView> questions(@RequestParam(defaultValue = "") String category,
+			@RequestParam(defaultValue = "") String difficulty,
+			@RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "50") int limit) {
+		return Mono.fromCallable(() -> service.questions(category, difficulty, offset, Math.min(limit, MAX_PAGE)))
+				.onErrorMap(IllegalArgumentException.class, QuizController::badRequest)
+				.flatMapIterable(page -> page);
+	}
+
+	@PostMapping("/quizzes")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<QuizView> start(@RequestBody StartRequest request) {
+		return Mono.fromCallable(() -> service.start(orEmpty(request.category()), orEmpty(request.difficulty()),
+						request.count() == null ? 10 : request.count()))
+				.onErrorMap(IllegalArgumentException.class, QuizController::badRequest)
+				.onErrorMap(IllegalStateException.class,
+						e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+	}
+
+	@PostMapping("/quizzes/{id}/answers")
+	public Mono<QuizStatus> answer(@PathVariable UUID id, @RequestBody AnswersRequest request) {
+		List<String> answers = request.answers() == null ? List.of() : request.answers();
+		return offload(() -> service.answer(id, answers));
+	}
+
+	@PostMapping("/quizzes/{id}/finish")
+	public Mono<QuizStatus> finish(@PathVariable UUID id) {
+		return offload(() -> service.finish(id));
+	}
+
+	@GetMapping("/quizzes/{id}")
+	public Mono<QuizStatus> status(@PathVariable UUID id) {
+		return offload(() -> service.status(id));
+	}
+
+	@GetMapping("/history")
+	public Flux<QuizSummary> history(@RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "50") int limit) {
+		return Mono.fromCallable(() -> service.history(offset, Math.min(limit, MAX_PAGE)))
+				.subscribeOn(Schedulers.boundedElastic())
+				.onErrorMap(IllegalArgumentException.class, QuizController::badRequest)
+				.flatMapIterable(page -> page);
+	}
+
+	// Runs a quiz update off the event loop; finishing a quiz may write to the history
+	private static Mono<QuizStatus> offload(Callable<QuizStatus> update) {
+		return Mono.fromCallable(update)
+				.subscribeOn(Schedulers.boundedElastic())
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No such quiz")));
+	}
+
+	private static ResponseStatusException badRequest(Throwable e) {
+		return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+
+	private static String orEmpty(String value) {
+		return value == null ? "" : value;
+	}
+}
@@ -0,0 +1,243 @@
+package com.QuizApp.MCQ;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.quiz_App.AttemptRecorder;
+import com.quiz_App.CategoryIndex;
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+import com.quiz_App.QuestionRepository;
+import com.quiz_App.QuizEngine;
+import com.quiz_App.QuizHistory;
+import com.quiz_App.QuizSession;
+import com.quiz_App.QuizSummary;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Quizzes taken over HTTP, played against the same in-memory bank as the
+ * console application.
+ *
+ * Questions are read through {@link QuestionRepository#read}, so requests
+ * never wait for each other. Each quiz is a {@link QuizSession} kept here
+ * by id until it has gone unused for the session timeout. A finished
+ * attempt is recorded through the shared {@link AttemptRecorder}, like a
+ * quiz taken on the console.
+ */
+public class QuizService implements AutoCloseable {
+	// A question as shown to a quiz taker, without its correct option
+	public record QuestionView(UUID id, String question, List<String> options,
+			String category, String difficultyLevel, LocalDateTime createdAt) {
+
+		static QuestionView of(Question question) {
+			return new QuestionView(question.getId(), question.getQuestion(), List.of(question.getOptions()),
+					question.getCategory(), question.getDifficultyLevel(), question.getCreatedAt());
+		}
+	}
+
+	public record QuizView(UUID id, String category, String difficultyLevel, List<QuestionView> questions) {
+	}
+
+	// Progress of a quiz; the summary is filled in once it is finished
+	public record QuizStatus(UUID id, int answered, int total, boolean finished, QuizSummary summary) {
+	}
+
+	private static final class Entry {
+		private final QuizSession session;
+		private volatile long lastUsed = System.nanoTime();
+		private boolean recorded;
+
+		Entry(QuizSession session) {
+			this.session = session;
+		}
+	}
+
+	private final QuestionRepository bank;
+	private final CategoryIndex index;
+	private final QuizHistory history;
+	private final AttemptRecorder recorder;
+	private final QuizEngine engine;
+	private final Runnable onClose;
+	private final Map<UUID, Entry> sessions = new ConcurrentHashMap<>();
+	private final long timeoutNanos;
+	private final int maxSessions;
+	private final Disposable sweeper;
+
+	public QuizService(QuestionRepository bank, CategoryIndex index, AttemptRecorder recorder,
+			Duration sessionTimeout, int maxSessions, Runnable onClose) {
+		this.bank = bank;
+		this.index = index;
+		this.history = recorder.history();
+		this.recorder = recorder;
+		this.engine = new QuizEngine(bank, index, recorder);
+		this.onClose = onClose;
+		this.timeoutNanos = sessionTimeout.toNanos();
+		this.maxSessions = maxSessions;
+		long period = Math.max(1, sessionTimeout.toMillis() / 2);
+		this.sweeper = Schedulers.parallel().schedulePeriodically(this::evictExpired, period, period,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Questions matching the filters (empty matches all) from position
+	 * {@code offset} on, at most {@code limit} of them.
+	 */
+	public List<QuestionView> questions(String category, String difficulty, int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("offset and limit must not be negative");
+		}
+		boolean unfiltered = CategoryIndex.normalize(category).isEmpty()
+				&& CategoryIndex.normalize(difficulty).isEmpty();
+		return bank.read(questions -> {
+			List<Question> pool = unfiltered ? questions : index.find(category, difficulty);
+			int from = Math.min(offset, pool.size());
+			int to = (int) Math.min(pool.size(), (long) from + limit);
+			List<QuestionView> page = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++) {
+				page.add(QuestionView.of(pool.get(i)));
+			}
+			return page;
+		});
+	}
+
+	/**
+	 * Draws {@code count} questions and starts a quiz on them.
+	 *
+	 * @throws IllegalArgumentException if fewer questions match the filters
+	 * @throws IllegalStateException if too many quizzes are open
+	 */
+	public QuizView start(String category, String difficulty, int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("count must be positive");
+		}
+		if (sessions.size() >= maxSessions) {
+			evictExpired();
+			if (sessions.size() >= maxSessions) {
+				throw new IllegalStateException("Too many open quizzes");
+			}
+		}
+		QuizSession session = engine.start(category, difficulty, count);
+		UUID id = UUID.randomUUID();
+		sessions.put(id, new Entry(session));
+
+		List<QuestionView> drawn = new ArrayList<>(session.size());
+		for (Question question : session.getQuestions()) {
+			drawn.add(QuestionView.of(question));
+		}
+		return new QuizView(id, category, difficulty, drawn);
+	}
+
+	/**
+	 * Answers the next questions of a quiz in order: 'A' to 'D' answers a
+	 * question, 'S' (or blank) skips it and 'E' ends the quiz. The quiz is
+	 * recorded in the history once no questions are left.
+	 *
+	 * @return null if there is no such quiz
+	 */
+	public QuizStatus answer(UUID id, List<String> answers) {
+		Entry entry = touch(id);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			for (String answer : answers) {
+				if (!entry.session.hasNext()) {
+					break;
+				}
+				char choice = answer == null || answer.isBlank() ? 'S' : Character.toUpperCase(answer.trim().charAt(0));
+				if (choice == 'E') {
+					entry.session.finish();
+				} else if (choice >= 'A' && choice <= 'D') {
+					entry.session.answer(choice);
+				} else {
+					entry.session.skip();
+				}
+			}
+			return status(id, entry);
+		}
+	}
+
+	// Marks the questions not answered yet as incorrect and records the quiz; null if there is no such quiz
+	public QuizStatus finish(UUID id) {
+		Entry entry = touch(id);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			entry.session.finish();
+			return status(id, entry);
+		}
+	}
+
+	// Null if there is no such quiz
+	public QuizStatus status(UUID id) {
+		Entry entry = touch(id);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			return status(id, entry);
+		}
+	}
+
+	// Caller holds the entry's lock
+	private QuizStatus status(UUID id, Entry entry) {
+		QuizSession session = entry.session;
+		boolean finished = !session.hasNext();
+		if (finished && !entry.recorded) {
+			recorder.record(session);
+			entry.recorded = true;
+		}
+		return new QuizStatus(id, session.number() - 1, session.size(), finished,
+				finished ? session.summary() : null);
+	}
+
+	/**
+	 * Past attempts from position {@code offset} on, at most {@code limit}
+	 * of them. Only the answers are given, not the question texts.
+	 */
+	public List<QuizSummary> history(int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("offset and limit must not be negative");
+		}
+		int size = history.size();
+		int to = (int) Math.min(size, (long) offset + limit);
+		List<QuizSummary> page = new ArrayList<>(Math.max(0, to - offset));
+		for (int i = offset; i < to; i++) {
+			QuizAttempt attempt = history.get(i);
+			page.add(QuizSummary.of(attempt, questionId -> null));
+		}
+		return page;
+	}
+
+	public int openQuizzes() {
+		return sessions.size();
+	}
+
+	private Entry touch(UUID id) {
+		Entry entry = sessions.get(id);
+		if (entry != null) {
+			entry.lastUsed = System.nanoTime();
+		}
+		return entry;
+	}
+
+	// Drops quizzes nobody has used within the timeout; unfinished ones are not recorded
+	void evictExpired() {
+		long now = System.nanoTime();
+		sessions.values().removeIf(entry -> now - entry.lastUsed > timeoutNanos);
+	}
+
+	// Waits for running quizzes, then runs the close action (saving the bank in the server)
+	@Override
+	public void close() {
+		sweeper.dispose();
+		engine.close();
+		onClose.run();
+	}
+}
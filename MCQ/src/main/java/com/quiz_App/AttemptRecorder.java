@@ -0,0 +1,100 @@
+package com.quiz_App;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Records a finished attempt everywhere it counts: the quiz history, the
+ * question analytics and ratings, the audit log, the completed-quizzes
+ * counter and a Flight Recorder event. The console, {@link QuizEngine} and
+ * the REST service all record through one of these, so an attempt counts
+ * the same whichever way it was taken.
+ *
+ * Every store it writes to is thread-safe and the history does not block,
+ * so attempts may be recorded from any thread. The question analytics and
+ * ratings are saved with the history position they cover, and saving
+ * waits for attempts being recorded, so that position is exact.
+ */
+public class AttemptRecorder {
+    private final QuizHistory history;
+    private final QuestionAnalytics analytics;
+    private final QuestionRatings ratings;
+    private final AuditTrail audit;
+    // Held shared while an attempt is recorded and exclusively while the stores are saved
+    private final ReadWriteLock saving = new ReentrantReadWriteLock();
+
+    public AttemptRecorder(QuizHistory history, QuestionAnalytics analytics, QuestionRatings ratings,
+                           AuditTrail audit) {
+        this.history = history;
+        this.analytics = analytics;
+        this.ratings = ratings;
+        this.audit = audit;
+    }
+
+    public QuizHistory history() {
+        return history;
+    }
+
+    /**
+     * Records a finished attempt. {@code responseMillis} holds the time
+     * taken for each answer as {@link QuestionAnalytics#record} expects it;
+     * it may be null.
+     */
+    public void record(QuizAttempt attempt, int[] responseMillis) {
+        FlightEvents.QuizGrading event = new FlightEvents.QuizGrading();
+        event.begin();
+        saving.readLock().lock();
+        try {
+            history.record(attempt);
+            analytics.record(attempt, responseMillis);
+            ratings.record(attempt);
+        } finally {
+            saving.readLock().unlock();
+        }
+        audit.recordQuiz(attempt);
+        OperationMetrics.QUIZZES_COMPLETED.increment();
+        event.commit(attempt);
+    }
+
+    // Records the attempt of a finished session with its response times
+    public void record(QuizSession session) {
+        record(session.getAttempt(), session.responseMillis());
+    }
+
+    // Flushes the history and saves the analytics and ratings of everything recorded so far
+    public void save(Path analyticsFile, Path ratingsFile) throws IOException {
+        saving.writeLock().lock();
+        try {
+            history.flush();
+            long position = history.end();
+            analytics.save(analyticsFile, position);
+            ratings.save(ratingsFile, position);
+        } finally {
+            saving.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the analytics and ratings saved by {@link #save}, catching them
+     * up with attempts recorded after that save. A store that was never
+     * saved is built from the history.
+     */
+    public void load(Path analyticsFile, Path ratingsFile) throws IOException {
+        if (Files.exists(analyticsFile)) {
+            analytics.load(analyticsFile, history);
+        } else if (!history.isEmpty()) {
+            analytics.rebuild(history);
+        }
+        // Ratings replay the history in the order it was taken
+        if (Files.exists(ratingsFile)) {
+            ratings.load(ratingsFile, history);
+        } else if (!history.isEmpty()) {
+            ratings.rebuild(history);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.quiz_App.MCQApplication.AuditLog;
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * The audit log: every administrative action and finished quiz, oldest first.
+ *
+ * Recording an event never waits for the disk. Callers put events on a
+ * bounded lock-free ring buffer. A background writer takes them off every
+ * few milliseconds and appends each batch to the current log file with a
+ * single write and fsync (group commit). If the buffer is full the event
+ * is dropped and counted, and the next batch notes how many were lost.
+ *
+ * Log files are plain text, one event per line (timestamp, action and
+ * details separated by tabs), named {@code audit-000001.log} and so on in
+ * the audit directory. A new file is started once the current one passes
+ * {@code mcq.audit.rollBytes}; only the newest {@code mcq.audit.keepFiles}
+ * are kept. Until {@link #attach} is called, the newest
+ * {@code mcq.audit.memoryEvents} events (by default the larger of 8192 and
+ * the buffer's capacity) are kept in memory; older ones are dropped and
+ * counted, and attaching notes how many were lost.
+ */
+public class AuditTrail implements Closeable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final long DEFAULT_COMMIT_MILLIS = 10;
+    public static final long DEFAULT_ROLL_BYTES = 4L << 20;
+    public static final int DEFAULT_KEEP_FILES = 8;
+    public static final int DEFAULT_MEMORY_EVENTS = 8192;
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    // Ring buffer: slot i is free for position p when sequences[i] == p, full when it is p + 1
+    private final AtomicReferenceArray<AuditLog> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Next position to take; only read and written under writeLock
+    private long head;
+    private final LongAdder dropped = new LongAdder();
+
+    private final long commitMillis;
+    private final long rollBytes;
+    private final int keepFiles;
+    private final int memoryEvents;
+    private final Object writeLock = new Object();
+    // Newest events while detached, or null once attached
+    private ArrayDeque<AuditLog> memory = new ArrayDeque<>();
+    // Events pushed out of memory by newer ones while detached
+    private long forgotten;
+    private Path dir;
+    private FileChannel channel;
+    private int fileNumber;
+    private volatile Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AuditTrail() {
+        this(Integer.getInteger("mcq.audit.capacity", DEFAULT_CAPACITY));
+    }
+
+    public AuditTrail(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.commitMillis = Long.getLong("mcq.audit.commitMillis", DEFAULT_COMMIT_MILLIS);
+        this.rollBytes = Long.getLong("mcq.audit.rollBytes", DEFAULT_ROLL_BYTES);
+        this.keepFiles = Math.max(1, Integer.getInteger("mcq.audit.keepFiles", DEFAULT_KEEP_FILES));
+        this.memoryEvents = Math.max(1,
+            Integer.getInteger("mcq.audit.memoryEvents", Math.max(DEFAULT_MEMORY_EVENTS, size)));
+    }
+
+    /**
+     * Logs to the files in {@code dir} from now on, continuing the newest
+     * one. Events recorded so far are written there first.
+     */
+    public void attach(Path dir) throws IOException {
+        synchronized (writeLock) {
+            closeChannel();
+            Files.createDirectories(dir);
+            List<Path> files = files(dir);
+            this.dir = dir;
+            this.fileNumber = files.isEmpty() ? 1 : number(files.get(files.size() - 1));
+            openCurrent();
+            List<AuditLog> pending = new ArrayList<>(memory);
+            if (forgotten > 0) {
+                pending.add(0, new AuditLog("AUDIT", "Dropped " + forgotten + " events before the log was attached"));
+            }
+            memory = null;
+            forgotten = 0;
+            if (!pending.isEmpty()) {
+                append(pending);
+            }
+        }
+    }
+
+    // Queues an event for the writer; never blocks
+    public void record(String action, String details) {
+        if (closed) {
+            return;
+        }
+        if (!offer(new AuditLog(action, details))) {
+            dropped.increment();
+        }
+        if (writer == null) {
+            startWriter();
+        }
+    }
+
+    // Queues a finished quiz
+    public void recordQuiz(QuizAttempt attempt) {
+        record("QUIZ", "Completed quiz: " + attempt.getScore() + "/" + attempt.getAnswers().size()
+            + " (" + (attempt.getCategory().isEmpty() ? "All" : attempt.getCategory()) + ", "
+            + (attempt.getDifficultyLevel().isEmpty() ? "All" : attempt.getDifficultyLevel()) + ")");
+    }
+
+    // Writes events with their original timestamps straight away, e.g. when migrating an older log
+    public void restore(List<AuditLog> events) throws IOException {
+        synchronized (writeLock) {
+            commit();
+            append(events);
+        }
+    }
+
+    // Writes (and fsyncs) every event recorded before the call
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            commit();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // All events still on record, oldest first
+    public List<AuditLog> entries() {
+        synchronized (writeLock) {
+            try {
+                commit();
+                if (memory != null) {
+                    return new ArrayList<>(memory);
+                }
+                List<AuditLog> entries = new ArrayList<>();
+                for (Path file : files(dir)) {
+                    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            AuditLog entry = parse(line);
+                            if (entry != null) {
+                                entries.add(entry);
+                            }
+                        }
+                    }
+                }
+                return entries;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return entries().isEmpty();
+    }
+
+    // Forgets every event, deleting the log files
+    public void clear() {
+        synchronized (writeLock) {
+            try {
+                commit();
+                if (memory != null) {
+                    memory.clear();
+                    forgotten = 0;
+                    return;
+                }
+                closeChannel();
+                for (Path file : files(dir)) {
+                    Files.deleteIfExists(file);
+                }
+                fileNumber = 1;
+                openCurrent();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Thread running = writer;
+        if (running != null) {
+            LockSupport.unpark(running);
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            try {
+                commit();
+            } finally {
+                closeChannel();
+            }
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writer != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::writeLoop, "mcq-audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+        writer = thread;
+    }
+
+    private void writeLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(commitMillis * 1_000_000L);
+            try {
+                synchronized (writeLock) {
+                    commit();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    System.out.println("Error writing audit log: " + e.getMessage());
+                }
+                failure = e;
+            }
+        }
+    }
+
+    private boolean offer(AuditLog event) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(slot, event);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The writer has not taken the event a full lap ago yet
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Takes the next published event, or null; caller holds writeLock
+    private AuditLog poll() {
+        int slot = (int) (head & mask);
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        AuditLog event = slots.get(slot);
+        slots.set(slot, null);
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    // Moves everything published so far out of the ring in one batch; caller holds writeLock
+    private void commit() throws IOException {
+        List<AuditLog> batch = new ArrayList<>();
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            batch.add(new AuditLog("AUDIT", "Dropped " + lost + " events while the audit buffer was full"));
+        }
+        for (AuditLog event = poll(); event != null; event = poll()) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            append(batch);
+        }
+    }
+
+    // Caller holds writeLock
+    private void append(List<AuditLog> batch) throws IOException {
+        if (memory != null) {
+            for (AuditLog event : batch) {
+                if (memory.size() == memoryEvents) {
+                    memory.removeFirst();
+                    forgotten++;
+                }
+                memory.addLast(event);
+            }
+            return;
+        }
+        StringBuilder text = new StringBuilder(batch.size() * 80);
+        for (AuditLog event : batch) {
+            text.append(event.getTimestamp()).append('\t');
+            escape(text, event.getAction());
+            text.append('\t');
+            escape(text, event.getDetails());
+            text.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        if (channel.size() > 0 && channel.size() + buffer.remaining() > rollBytes) {
+            roll();
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    // Starts the next file and deletes the oldest ones beyond keepFiles
+    private void roll() throws IOException {
+        closeChannel();
+        fileNumber++;
+        openCurrent();
+        List<Path> files = files(dir);
+        for (int i = 0; i < files.size() - keepFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void openCurrent() throws IOException {
+        channel = FileChannel.open(dir.resolve(String.format("%s%06d%s", PREFIX, fileNumber, SUFFIX)),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Log files in the directory, oldest first
+    private static List<Path> files(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted(Comparator.comparingInt(AuditTrail::number))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static int number(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Backslashes, tabs and line breaks are escaped so each event stays on one line
+    private static void escape(StringBuilder text, String value) {
+        String safe = value == null ? "" : value;
+        for (int i = 0; i < safe.length(); i++) {
+            char c = safe.charAt(i);
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '\t' -> text.append("\\t");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                default -> text.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                text.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    // Null for a line that is not a complete event, such as a torn last line
+    private static AuditLog parse(String line) {
+        String[] fields = line.split("\t", 3);
+        if (fields.length < 3) {
+            return null;
+        }
+        try {
+            return new AuditLog(unescape(fields[1]), unescape(fields[2]), LocalDateTime.parse(fields[0]));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
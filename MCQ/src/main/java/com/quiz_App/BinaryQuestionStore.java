@@ -0,0 +1,488 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Versioned binary file format for the question bank, read through a
+ * memory mapping so questions are only decoded when they are used.
+ *
+ * Layout (all numbers big-endian):
+ * <pre>
+ *   file header   magic "MCQB", version, question count, string count,
+ *                 headers offset, heap offset, offset table offset,
+ *                 label table offset, label count, reserved int
+ *   headers       one fixed-width 64 byte record per question
+ *   string heap   UTF-8 bytes of every string, back to back
+ *   offset table  (string count + 1) longs; string i is heap[off[i], off[i+1])
+ *   label table   label count ints: the string number of each label
+ * </pre>
+ * A question header holds the id, creation time, correct option, the
+ * string numbers of its text and options, and the label numbers of its
+ * category and difficulty. Labels are the few distinct category and
+ * difficulty names; they are read when the store is opened and mapped to
+ * {@link LabelDictionary} codes, so classifying a question never decodes
+ * a string.
+ *
+ * Version 1 files, which have no label table and keep string numbers in
+ * the category and difficulty fields, are still read.
+ *
+ * Each section is mapped on its own, so a section must stay below 2 GB
+ * (about 33 million questions, or a 2 GB string heap).
+ *
+ * A mapped file cannot be replaced on every platform (Windows refuses), so
+ * a bank saved under {@code name.bin} is written to a new generation
+ * {@code name.<n>.bin} each time, and a small pointer file
+ * {@code name.current} names the generation to open. A plain
+ * {@code name.bin} from before generations is still opened.
+ */
+public class BinaryQuestionStore {
+    private static final int MAGIC = 0x4D435142; // "MCQB"
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 56;
+    private static final int V1_FILE_HEADER_SIZE = 40;
+    private static final int RECORD_SIZE = 64;
+    private static final int MAX_OPTIONS = 4;
+
+    // Offsets inside a question header
+    private static final int ID_MSB = 0;
+    private static final int ID_LSB = 8;
+    private static final int CREATED_SECONDS = 16;
+    private static final int CREATED_NANOS = 24;
+    private static final int CORRECT_OPTION = 28;
+    private static final int OPTION_COUNT = 30;
+    private static final int QUESTION_TEXT = 32;
+    private static final int OPTIONS = 36;
+    private static final int CATEGORY = 52;
+    private static final int DIFFICULTY = 56;
+
+    private final int count;
+    private final MappedByteBuffer headers;
+    private final MappedByteBuffer heap;
+    private final LongBuffer offsets;
+    // Names of the labels, or null for a version 1 file
+    private final String[] labels;
+    // Dictionary codes of the labels, resolved when first needed (-1 until then)
+    private final int[] categoryCodes;
+    private final int[] difficultyCodes;
+    // Version 1: dictionary codes by string number
+    private final Map<Integer, Integer> legacyCategoryCodes = new HashMap<>();
+    private final Map<Integer, Integer> legacyDifficultyCodes = new HashMap<>();
+
+    private BinaryQuestionStore(int count, MappedByteBuffer headers, MappedByteBuffer heap, LongBuffer offsets,
+                                String[] labels) {
+        this.count = count;
+        this.headers = headers;
+        this.heap = heap;
+        this.offsets = offsets;
+        this.labels = labels;
+        int labelCount = labels == null ? 0 : labels.length;
+        this.categoryCodes = new int[labelCount];
+        this.difficultyCodes = new int[labelCount];
+        Arrays.fill(categoryCodes, -1);
+        Arrays.fill(difficultyCodes, -1);
+    }
+
+    // Maps a store file; only the file header is read here
+    public static BinaryQuestionStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < V1_FILE_HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a question store: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("Unsupported question store version " + version);
+            }
+            if (version == VERSION && header.remaining() < FILE_HEADER_SIZE - 8) {
+                throw new IOException("Not a question store: " + path);
+            }
+            int count = header.getInt();
+            int stringCount = header.getInt();
+            long headersOffset = header.getLong();
+            long heapOffset = header.getLong();
+            long offsetsOffset = header.getLong();
+
+            MappedByteBuffer headers = map(channel, headersOffset, (long) count * RECORD_SIZE);
+            MappedByteBuffer heap = map(channel, heapOffset, offsetsOffset - heapOffset);
+            LongBuffer offsets = map(channel, offsetsOffset, (stringCount + 1L) * Long.BYTES).asLongBuffer();
+            String[] labels = null;
+            if (version == VERSION) {
+                long labelsOffset = header.getLong();
+                int labelCount = header.getInt();
+                IntBuffer numbers = map(channel, labelsOffset, (long) labelCount * Integer.BYTES).asIntBuffer();
+                labels = new String[labelCount];
+                for (int i = 0; i < labelCount; i++) {
+                    labels[i] = string(heap, offsets, numbers.get(i));
+                }
+            }
+            // The mappings stay valid after the channel is closed
+            return new BinaryQuestionStore(count, headers, heap, offsets, labels);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Question store section too large to map: " + size + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public UUID idAt(int ordinal) {
+        int base = base(ordinal);
+        return new UUID(headers.getLong(base + ID_MSB), headers.getLong(base + ID_LSB));
+    }
+
+    public String categoryAt(int ordinal) {
+        return label(headers.getInt(base(ordinal) + CATEGORY));
+    }
+
+    public String difficultyAt(int ordinal) {
+        return label(headers.getInt(base(ordinal) + DIFFICULTY));
+    }
+
+    // LabelDictionary.CATEGORIES code of a question's category, without decoding it
+    int categoryCodeAt(int ordinal) {
+        return code(headers.getInt(base(ordinal) + CATEGORY), LabelDictionary.CATEGORIES,
+            categoryCodes, legacyCategoryCodes);
+    }
+
+    int difficultyCodeAt(int ordinal) {
+        return code(headers.getInt(base(ordinal) + DIFFICULTY), LabelDictionary.DIFFICULTIES,
+            difficultyCodes, legacyDifficultyCodes);
+    }
+
+    private String label(int number) {
+        return labels == null ? string(number) : labels[number];
+    }
+
+    private int code(int number, LabelDictionary dictionary, int[] codes, Map<Integer, Integer> legacyCodes) {
+        if (labels == null) {
+            synchronized (legacyCodes) {
+                return legacyCodes.computeIfAbsent(number, n -> dictionary.code(string(n)));
+            }
+        }
+        int code = codes[number];
+        if (code < 0) {
+            // Racing threads resolve the same code, so the unsynchronized write is harmless
+            code = dictionary.code(labels[number]);
+            codes[number] = code;
+        }
+        return code;
+    }
+
+    public LocalDateTime createdAt(int ordinal) {
+        int base = base(ordinal);
+        return LocalDateTime.ofEpochSecond(headers.getLong(base + CREATED_SECONDS),
+            headers.getInt(base + CREATED_NANOS), ZoneOffset.UTC);
+    }
+
+    // Decodes one question from the mapping
+    public Question load(int ordinal) {
+        int base = base(ordinal);
+        String[] options = new String[headers.get(base + OPTION_COUNT)];
+        for (int i = 0; i < options.length; i++) {
+            options[i] = string(headers.getInt(base + OPTIONS + i * Integer.BYTES));
+        }
+        return new Question(
+            new UUID(headers.getLong(base + ID_MSB), headers.getLong(base + ID_LSB)),
+            string(headers.getInt(base + QUESTION_TEXT)),
+            options,
+            headers.getChar(base + CORRECT_OPTION),
+            categoryCodeAt(ordinal),
+            difficultyCodeAt(ordinal),
+            LocalDateTime.ofEpochSecond(headers.getLong(base + CREATED_SECONDS),
+                headers.getInt(base + CREATED_NANOS), ZoneOffset.UTC));
+    }
+
+    private int base(int ordinal) {
+        Objects.checkIndex(ordinal, count);
+        return ordinal * RECORD_SIZE;
+    }
+
+    private String string(int number) {
+        return string(heap, offsets, number);
+    }
+
+    private static String string(MappedByteBuffer heap, LongBuffer offsets, int number) {
+        long start = offsets.get(number);
+        int length = (int) (offsets.get(number + 1) - start);
+        byte[] bytes = new byte[length];
+        heap.get((int) start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the given questions to a store file. Questions are read through
+     * {@link QuestionRepository#peek(int)} when the source is the bank, so
+     * saving does not pull unloaded questions onto the heap.
+     */
+    public static void write(Path path, List<Question> questions) throws IOException {
+        int count = questions.size();
+        long headersOffset = FILE_HEADER_SIZE;
+        long heapOffset = headersOffset + (long) count * RECORD_SIZE;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            HeapWriter heap = new HeapWriter(channel, heapOffset);
+            // Label number of each category or difficulty name, and the string number of each label
+            Map<String, Integer> labelNumbers = new HashMap<>();
+            List<Integer> labelStrings = new ArrayList<>();
+            ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 1024);
+            long recordsPosition = headersOffset;
+
+            for (int i = 0; i < count; i++) {
+                Question q = questions instanceof QuestionRepository repository
+                    ? repository.peek(i)
+                    : questions.get(i);
+                String[] options = q.getOptions();
+                if (options.length > MAX_OPTIONS) {
+                    throw new IOException("Question has more than " + MAX_OPTIONS + " options: " + q.getId());
+                }
+                LocalDateTime createdAt = q.getCreatedAt();
+
+                int start = records.position();
+                records.putLong(q.getId().getMostSignificantBits());
+                records.putLong(q.getId().getLeastSignificantBits());
+                records.putLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+                records.putInt(createdAt.getNano());
+                records.putChar(q.getCorrectOption());
+                records.put((byte) options.length);
+                records.put((byte) 0);
+                records.putInt(heap.add(q.getQuestion()));
+                for (int o = 0; o < MAX_OPTIONS; o++) {
+                    records.putInt(o < options.length ? heap.add(options[o]) : -1);
+                }
+                records.putInt(labelNumber(q.getCategory(), heap, labelNumbers, labelStrings));
+                records.putInt(labelNumber(q.getDifficultyLevel(), heap, labelNumbers, labelStrings));
+                records.putInt(0);
+                records.position(start + RECORD_SIZE);
+
+                if (!records.hasRemaining()) {
+                    records.flip();
+                    recordsPosition += writeFully(channel, records, recordsPosition);
+                    records.clear();
+                }
+            }
+            records.flip();
+            writeFully(channel, records, recordsPosition);
+
+            long offsetsOffset = heap.finish();
+            long labelsOffset = offsetsOffset + (heap.strings() + 1L) * Long.BYTES;
+            ByteBuffer labelTable = ByteBuffer.allocate(labelStrings.size() * Integer.BYTES);
+            for (int number : labelStrings) {
+                labelTable.putInt(number);
+            }
+            labelTable.flip();
+            writeFully(channel, labelTable, labelsOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(heap.strings())
+                  .putLong(headersOffset).putLong(heapOffset).putLong(offsetsOffset)
+                  .putLong(labelsOffset).putInt(labelStrings.size()).putInt(0);
+            header.flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * The snapshot a bank saved under {@code base} opens from: the
+     * generation the pointer file names, or {@code base} itself; null if
+     * there is neither.
+     */
+    public static Path current(Path base) throws IOException {
+        Path pointer = sibling(base, ".current");
+        if (Files.exists(pointer)) {
+            Path snapshot = base.resolveSibling(Files.readString(pointer, StandardCharsets.UTF_8).trim());
+            if (Files.exists(snapshot)) {
+                return snapshot;
+            }
+        }
+        return Files.exists(base) ? base : null;
+    }
+
+    /**
+     * Writes the questions to the next generation of {@code base} and
+     * points the pointer file at it; returns the new snapshot. No existing
+     * file is overwritten except the pointer, which is never mapped, and
+     * the directory is forced so the switch survives a crash.
+     */
+    public static Path writeGeneration(Path base, List<Question> questions) throws IOException {
+        Path current = current(base);
+        long generation = current == null ? 1 : generation(base, current) + 1;
+        Path snapshot = sibling(base, "." + generation + ".bin");
+        write(snapshot, questions);
+
+        Path pointer = sibling(base, ".current");
+        Path temp = sibling(base, ".current.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(snapshot.getFileName().toString().getBytes(StandardCharsets.UTF_8)), 0);
+            channel.force(true);
+        }
+        Files.move(temp, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(base.toAbsolutePath().getParent());
+        return snapshot;
+    }
+
+    /**
+     * Deletes the snapshots of {@code base} other than {@code keep}. Files
+     * that are still mapped may not be deletable; they are left for the
+     * next start.
+     */
+    public static void deleteStale(Path base, Path keep) {
+        Path directory = base.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, stem(base) + "*.bin")) {
+            for (Path file : files) {
+                boolean generation = generation(base, file) > 0;
+                if ((generation || file.getFileName().equals(base.getFileName()))
+                        && (keep == null || !Files.isSameFile(file, keep))) {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        // Still mapped by this process; removed on a later start
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Nothing to clean up now
+        }
+    }
+
+    // Generation of a snapshot of base: n for name.<n>.bin, 0 for base or any other file
+    private static long generation(Path base, Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        String prefix = stem(base) + ".";
+        if (!name.startsWith(prefix) || !name.endsWith(".bin") || name.length() <= prefix.length() + 4) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - ".bin".length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // base's file name without its extension
+    private static String stem(Path base) {
+        String name = base.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static Path sibling(Path base, String suffix) {
+        return base.resolveSibling(stem(base) + suffix);
+    }
+
+    // Makes a rename in the directory durable; not every platform can open a directory, and those need not
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows cannot open directories; its file system journals renames itself
+        }
+    }
+
+    private static int labelNumber(String name, HeapWriter heap, Map<String, Integer> labelNumbers,
+                                   List<Integer> labelStrings) throws IOException {
+        Integer number = labelNumbers.get(name);
+        if (number == null) {
+            number = labelStrings.size();
+            labelStrings.add(heap.add(name));
+            labelNumbers.put(name, number);
+        }
+        return number;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    // Appends strings to the heap section and remembers where each one starts
+    private static class HeapWriter {
+        private final FileChannel channel;
+        private final long heapOffset;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long[] offsets = new long[1024];
+        private int strings;
+        private long heapSize;
+        private long flushedTo;
+
+        HeapWriter(FileChannel channel, long heapOffset) {
+            this.channel = channel;
+            this.heapOffset = heapOffset;
+        }
+
+        int strings() {
+            return strings;
+        }
+
+        int add(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (strings + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[strings] = heapSize;
+            heapSize += bytes.length;
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                flushedTo += writeFully(channel, ByteBuffer.wrap(bytes), heapOffset + flushedTo);
+            } else {
+                buffer.put(bytes);
+            }
+            return strings++;
+        }
+
+        // Writes the rest of the heap and the offset table; returns the table's position
+        long finish() throws IOException {
+            flush();
+            offsets[strings] = heapSize;
+            long offsetsOffset = heapOffset + heapSize;
+            ByteBuffer table = ByteBuffer.allocate(Math.min(1 << 16, (strings + 1) * Long.BYTES));
+            long position = offsetsOffset;
+            for (int i = 0; i <= strings; i++) {
+                if (!table.hasRemaining()) {
+                    table.flip();
+                    position += writeFully(channel, table, position);
+                    table.clear();
+                }
+                table.putLong(offsets[i]);
+            }
+            table.flip();
+            writeFully(channel, table, position);
+            return offsetsOffset;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            flushedTo += writeFully(channel, buffer, heapOffset + flushedTo);
+            buffer.clear();
+        }
+    }
+}
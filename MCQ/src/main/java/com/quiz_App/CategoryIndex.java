@@ -0,0 +1,319 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Secondary index of the question bank keyed on normalized category and
+ * difficulty. Kept up to date by {@link QuestionRepository} so filters and
+ * the category listings never rescan the bank. Keys are the codes of
+ * {@link LabelDictionary}, so a lookup compares integers, not strings.
+ *
+ * After the bank is opened from a store the index is rebuilt on its first
+ * query rather than at startup, from the store's ids and label codes;
+ * questions themselves are only decoded when a result is read.
+ */
+public class CategoryIndex implements QuestionRepository.Listener {
+    // Questions of one category, bucketed by difficulty
+    private static class CategoryEntry {
+        private final String name;
+        private final Map<Integer, Bucket> byDifficulty = new LinkedHashMap<>();
+        private int size;
+
+        CategoryEntry(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Questions of one category and difficulty, with the position of each
+     * id, so a removal moves the last question into the freed slot instead
+     * of scanning the bucket.
+     */
+    private static class Bucket extends AbstractList<Question> implements RandomAccess {
+        private final ArrayList<UUID> ids = new ArrayList<>();
+        // Null where the bucket was rebuilt from a store; those are read through the bank
+        private final ArrayList<Question> questions = new ArrayList<>();
+        private final HashMap<UUID, Integer> positions = new HashMap<>();
+        // Ids that are in the bucket more than once (same object added twice), with their count
+        private final HashMap<UUID, Integer> duplicates = new HashMap<>();
+
+        private final QuestionRepository repository;
+
+        Bucket(QuestionRepository repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Question get(int index) {
+            Question question = questions.get(index);
+            return question != null ? question : repository.peekById(ids.get(index));
+        }
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+
+        @Override
+        public boolean add(Question question) {
+            add(question.getId(), question);
+            return true;
+        }
+
+        void add(UUID id, Question question) {
+            Integer previous = positions.put(id, ids.size());
+            if (previous != null) {
+                duplicates.merge(id, 2, (count, ignored) -> count + 1);
+            }
+            ids.add(id);
+            questions.add(question);
+        }
+
+        boolean removeId(UUID id) {
+            Integer position = positions.get(id);
+            if (position == null) {
+                return false;
+            }
+            int last = ids.size() - 1;
+            UUID movedId = ids.remove(last);
+            Question moved = questions.remove(last);
+            if (position != last) {
+                ids.set(position, movedId);
+                questions.set(position, moved);
+                positions.put(movedId, position);
+            }
+            Integer count = duplicates.get(id);
+            if (count == null) {
+                positions.remove(id);
+                return true;
+            }
+            // Rare path: another copy is still in the bucket
+            if (count <= 2) {
+                duplicates.remove(id);
+            } else {
+                duplicates.put(id, count - 1);
+            }
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                if (ids.get(i).equals(id)) {
+                    positions.put(id, i);
+                    break;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Display name and question count of one difficulty level
+    private static class DifficultyEntry {
+        private final String name;
+        private int size;
+
+        DifficultyEntry(String name) {
+            this.name = name;
+        }
+    }
+
+    // Keyed on LabelDictionary keys
+    private final Map<Integer, CategoryEntry> categories = new LinkedHashMap<>();
+    private final Map<Integer, DifficultyEntry> difficulties = new LinkedHashMap<>();
+    // Difficulty key of a filter that matches every level
+    private static final int ANY = -2;
+    // Reads the questions of buckets rebuilt from a store
+    private QuestionRepository repository;
+    // Bank to rebuild from on the next query, or null when the index is current
+    private QuestionRepository stale;
+
+    // Normalizes a category or difficulty the way the filters compare them
+    public static String normalize(String value) {
+        return LabelDictionary.normalize(value);
+    }
+
+    @Override
+    public void questionAdded(Question question) {
+        if (stale == null) {
+            add(question.getId(), question, question.categoryCode(), question.difficultyCode());
+        }
+    }
+
+    // Adds one question by its label codes; question is null when it was not decoded
+    private void add(UUID id, Question question, int categoryCode, int difficultyCode) {
+        int categoryKey = LabelDictionary.CATEGORIES.key(categoryCode);
+        int difficultyKey = LabelDictionary.DIFFICULTIES.key(difficultyCode);
+
+        CategoryEntry category = categories.computeIfAbsent(categoryKey,
+            key -> new CategoryEntry(LabelDictionary.CATEGORIES.name(categoryCode)));
+        category.byDifficulty.computeIfAbsent(difficultyKey, key -> new Bucket(repository)).add(id, question);
+        category.size++;
+
+        DifficultyEntry difficulty = difficulties.computeIfAbsent(difficultyKey,
+            key -> new DifficultyEntry(LabelDictionary.DIFFICULTIES.name(difficultyCode)));
+        difficulty.size++;
+    }
+
+    @Override
+    public void questionRemoved(Question question) {
+        if (stale != null) {
+            return;
+        }
+        int categoryKey = LabelDictionary.CATEGORIES.key(question.categoryCode());
+        int difficultyKey = LabelDictionary.DIFFICULTIES.key(question.difficultyCode());
+
+        CategoryEntry category = categories.get(categoryKey);
+        if (category == null) {
+            return;
+        }
+        Bucket bucket = category.byDifficulty.get(difficultyKey);
+        if (bucket == null || !bucket.removeId(question.getId())) {
+            return;
+        }
+        if (bucket.isEmpty()) {
+            category.byDifficulty.remove(difficultyKey);
+        }
+        if (--category.size == 0) {
+            categories.remove(categoryKey);
+        }
+
+        DifficultyEntry difficulty = difficulties.get(difficultyKey);
+        if (--difficulty.size == 0) {
+            difficulties.remove(difficultyKey);
+        }
+    }
+
+    @Override
+    public void cleared() {
+        categories.clear();
+        difficulties.clear();
+        stale = null;
+    }
+
+    @Override
+    public void reloaded(QuestionRepository repository) {
+        categories.clear();
+        difficulties.clear();
+        this.repository = repository;
+        stale = repository;
+    }
+
+    @Override
+    public void prepare() {
+        ensureCurrent();
+    }
+
+    private void ensureCurrent() {
+        if (stale == null) {
+            return;
+        }
+        QuestionRepository bank = stale;
+        stale = null;
+        bank.forEachLabelled((id, category, difficulty) -> add(id, null, category, difficulty));
+    }
+
+    // Distinct categories currently in the bank
+    public List<String> categories() {
+        ensureCurrent();
+        List<String> names = new ArrayList<>(categories.size());
+        for (CategoryEntry entry : categories.values()) {
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+    // Distinct difficulty levels currently in the bank
+    public List<String> difficulties() {
+        ensureCurrent();
+        List<String> names = new ArrayList<>(difficulties.size());
+        for (DifficultyEntry entry : difficulties.values()) {
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+    /**
+     * Questions matching a category and difficulty; an empty or null filter
+     * matches everything. The result is a read-only view over the index
+     * buckets, so it must not be kept across changes to the bank.
+     */
+    public List<Question> find(String category, String difficulty) {
+        ensureCurrent();
+        boolean anyCategory = normalize(category).isEmpty();
+        boolean anyDifficulty = normalize(difficulty).isEmpty();
+        int categoryKey = anyCategory ? LabelDictionary.UNKNOWN : LabelDictionary.CATEGORIES.keyOf(category);
+        int difficultyKey = anyDifficulty ? ANY : LabelDictionary.DIFFICULTIES.keyOf(difficulty);
+        if ((!anyCategory && categoryKey == LabelDictionary.UNKNOWN) || difficultyKey == LabelDictionary.UNKNOWN) {
+            // No question has ever had such a name
+            return Collections.emptyList();
+        }
+
+        List<List<Question>> buckets = new ArrayList<>();
+        if (anyCategory) {
+            for (CategoryEntry entry : categories.values()) {
+                addBuckets(entry, difficultyKey, buckets);
+            }
+        } else {
+            CategoryEntry entry = categories.get(categoryKey);
+            if (entry != null) {
+                addBuckets(entry, difficultyKey, buckets);
+            }
+        }
+        return buckets.size() == 1
+            ? Collections.unmodifiableList(buckets.get(0))
+            : new BucketView(buckets);
+    }
+
+    public List<Question> findByCategory(String category) {
+        return find(category, "");
+    }
+
+    public List<Question> findByDifficulty(String difficulty) {
+        return find("", difficulty);
+    }
+
+    private static void addBuckets(CategoryEntry entry, int difficultyKey, List<List<Question>> buckets) {
+        if (difficultyKey == ANY) {
+            buckets.addAll(entry.byDifficulty.values());
+        } else {
+            Bucket bucket = entry.byDifficulty.get(difficultyKey);
+            if (bucket != null) {
+                buckets.add(bucket);
+            }
+        }
+    }
+
+    // Read-only list spanning several buckets without copying them
+    private static class BucketView extends AbstractList<Question> implements RandomAccess {
+        private final List<List<Question>> buckets;
+        private final int[] offsets;
+
+        BucketView(List<List<Question>> buckets) {
+            this.buckets = buckets;
+            this.offsets = new int[buckets.size() + 1];
+            for (int i = 0; i < buckets.size(); i++) {
+                offsets[i + 1] = offsets[i] + buckets.get(i).size();
+            }
+        }
+
+        @Override
+        public Question get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int bucket = Arrays.binarySearch(offsets, index);
+            if (bucket < 0) {
+                bucket = -bucket - 2;
+            } else {
+                // Skip over empty buckets sharing the same offset
+                while (offsets[bucket + 1] == index) {
+                    bucket++;
+                }
+            }
+            return buckets.get(bucket).get(index - offsets[bucket]);
+        }
+
+        @Override
+        public int size() {
+            return offsets[offsets.length - 1];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.quiz_App;
+
+import java.util.*;
+
+/**
+ * Parses a menu input line of the form {@code value --name some value --flag}.
+ * Everything before the first option is the main value (e.g. a file path);
+ * an option's value runs until the next option, so it may contain spaces.
+ */
+public class CommandOptions {
+    private final String value;
+    private final Map<String, String> options = new LinkedHashMap<>();
+
+    private CommandOptions(String value) {
+        this.value = value;
+    }
+
+    public static CommandOptions parse(String line) {
+        String[] parts = (" " + line).split(" --");
+        CommandOptions parsed = new CommandOptions(parts[0].trim());
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int space = part.indexOf(' ');
+            String name = (space < 0 ? part : part.substring(0, space)).toLowerCase(Locale.ROOT);
+            String optionValue = space < 0 ? "" : part.substring(space + 1).trim();
+            if (!name.isEmpty()) {
+                parsed.options.put(name, optionValue);
+            }
+        }
+        return parsed;
+    }
+
+    // The text before the first option
+    public String value() {
+        return value;
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        String optionValue = options.get(name);
+        return optionValue == null ? defaultValue : optionValue;
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String optionValue = options.get(name);
+        if (optionValue == null || optionValue.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(optionValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects a number, got: " + optionValue);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.quiz_App;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Formats console listings into one reusable buffer and writes it out in
+ * blocks of about {@value #BLOCK_SIZE} characters, instead of one
+ * synchronized {@code println} per field. Nothing reaches the console until
+ * the buffer fills up or {@link #flush} is called, so callers flush before
+ * prompting for input.
+ *
+ * Output goes to whatever {@code System.out} is at the time of writing,
+ * unless a stream was given. A renderer belongs to the console thread and
+ * is not shared between threads.
+ */
+public class ConsoleRenderer {
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private final PrintStream out;
+    private StringBuilder buffer = new StringBuilder(BLOCK_SIZE + 1024);
+
+    public ConsoleRenderer() {
+        this(null);
+    }
+
+    public ConsoleRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    public ConsoleRenderer line() {
+        buffer.append('\n');
+        return blockFull();
+    }
+
+    public ConsoleRenderer line(String text) {
+        buffer.append(text).append('\n');
+        return blockFull();
+    }
+
+    /**
+     * One question with all its fields, laid out as the admin screens have
+     * always shown it.
+     */
+    public ConsoleRenderer question(Question q) {
+        buffer.append("\nID: ").append(q.getId())
+            .append("\nQuestion: ").append(q.getQuestion())
+            .append("\nCategory: ").append(q.getCategory())
+            .append("\nDifficulty: ").append(q.getDifficultyLevel())
+            .append("\nOptions:\n");
+        String[] options = q.getOptions();
+        for (int i = 0; i < options.length; i++) {
+            buffer.append((char) ('A' + i)).append(". ").append(options[i]).append('\n');
+        }
+        buffer.append("Correct Answer: ").append(q.getCorrectOption())
+            .append("\nCreated: ").append(q.getCreatedAt()).append('\n');
+        return blockFull();
+    }
+
+    // Questions from position from up to (excluding) to
+    public ConsoleRenderer questions(List<Question> questions, int from, int to) {
+        for (int i = from; i < to; i++) {
+            question(questions.get(i));
+        }
+        return this;
+    }
+
+    // Writes out everything buffered so far
+    public void flush() {
+        PrintStream target = out != null ? out : System.out;
+        if (buffer.length() > 0) {
+            target.append(buffer);
+            buffer.setLength(0);
+            if (buffer.capacity() > 4 * BLOCK_SIZE) {
+                // One huge question grew the buffer; do not hold on to it
+                buffer = new StringBuilder(BLOCK_SIZE + 1024);
+            }
+        }
+        target.flush();
+    }
+
+    private ConsoleRenderer blockFull() {
+        if (buffer.length() >= BLOCK_SIZE) {
+            flush();
+        }
+        return this;
+    }
+}
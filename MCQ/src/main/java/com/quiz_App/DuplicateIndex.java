@@ -0,0 +1,432 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Finds questions already in the bank that a new one duplicates, kept up to
+ * date by {@link QuestionRepository}.
+ *
+ * Exact duplicates have the same text and options once case and runs of
+ * whitespace are ignored. Each question is reduced to a 64-bit hash of that
+ * normalized content and the hashes are counted in an open-addressing
+ * table of primitives, so a check is one hash and usually one probe.
+ *
+ * Near duplicates (reworded questions) are found with MinHash: a question
+ * is the set of its words and two-word shingles, summarized by the minimum
+ * of each of {@value #HASHES} hash functions over that set. The signature
+ * is cut into {@value #BANDS} bands; questions sharing any band are
+ * candidates, and a candidate counts when the Jaccard similarity of the
+ * shingle sets reaches the threshold. That table is only built the first time near duplicates
+ * are asked for; it never forgets removed or edited questions (they fail
+ * the check) and is rebuilt once those outnumber the bank. A band key keeps
+ * at most {@value #MAX_PER_KEY} questions, so words every question shares
+ * cannot pile up candidates.
+ *
+ * After the bank is opened from a store the tables are rebuilt on the first
+ * check, which reads every question once. Checks run on the thread that
+ * edits the bank.
+ */
+public class DuplicateIndex implements QuestionRepository.Listener {
+    static final int BANDS = 10;
+    static final int ROWS = 3;
+    static final int HASHES = BANDS * ROWS;
+    // Questions kept per band key; a key this common says little and would make probing slow
+    private static final int MAX_PER_KEY = 32;
+    // Candidates checked per question at most, so a bank of near-identical templates stays fast
+    private static final int MAX_CANDIDATES = 100;
+    private static final int MIN_STALE_TO_REBUILD = 1024;
+    // Multiply-shift hash functions over the (already mixed) shingle hashes
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] INCREMENTS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    private final QuestionRepository repository;
+    // Content hashes with the number of questions having each; 0 marks a free slot
+    private long[] hashes = new long[64];
+    private int[] counts = new int[64];
+    private int distinct;
+    // Band keys (high half) and question ordinal + 1 (low half), one slot per band of each question
+    private long[] bands;
+    private int bandEntries;
+    // Questions removed or edited since the band table was built
+    private int staleBands;
+    // Whether the bank must be read again before the next check
+    private boolean stale;
+
+    public DuplicateIndex(QuestionRepository repository) {
+        this.repository = repository;
+    }
+
+    // Normalized content of a question: lower case, single spaces, text and options separated
+    static String normalize(Question question) {
+        StringBuilder content = new StringBuilder(128);
+        appendNormalized(content, question.getQuestion());
+        String[] options = question.getOptions();
+        if (options != null) {
+            for (String option : options) {
+                content.append('\u001F');
+                appendNormalized(content, option);
+            }
+        }
+        return content.toString();
+    }
+
+    private static void appendNormalized(StringBuilder content, String text) {
+        if (text == null) {
+            return;
+        }
+        boolean space = false;
+        int start = content.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = content.length() > start;
+            } else {
+                if (space) {
+                    content.append(' ');
+                    space = false;
+                }
+                content.append(Character.toLowerCase(c));
+            }
+        }
+    }
+
+    // 64-bit FNV-1a over the normalized content, finished with a MurmurHash3 mix; never 0
+    static long contentHash(Question question) {
+        String content = normalize(question);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash = (hash ^ content.charAt(i)) * 0x100000001b3L;
+        }
+        hash = mix(hash);
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public void questionAdded(Question question) {
+        if (stale) {
+            return;
+        }
+        count(contentHash(question), 1);
+        if (bands != null) {
+            addBands(question);
+        }
+    }
+
+    @Override
+    public void questionRemoved(Question question) {
+        if (stale) {
+            return;
+        }
+        count(contentHash(question), -1);
+        if (bands != null) {
+            staleBands++;
+        }
+    }
+
+    @Override
+    public void cleared() {
+        hashes = new long[64];
+        counts = new int[64];
+        distinct = 0;
+        bands = null;
+        bandEntries = 0;
+        staleBands = 0;
+        stale = false;
+    }
+
+    @Override
+    public void reloaded(QuestionRepository repository) {
+        cleared();
+        stale = true;
+    }
+
+    // Whether the bank already holds a question with the same text and options
+    public boolean containsExact(Question question) {
+        ensureCurrent();
+        return find(contentHash(question)) >= 0;
+    }
+
+    /**
+     * A question in the bank whose shingles overlap {@code question}'s by at
+     * least {@code similarity} (Jaccard, 0 to 1), or null if there is none.
+     * The first call builds the band table.
+     */
+    public Question findSimilar(Question question, double similarity) {
+        if (similarity <= 0 || similarity > 1) {
+            throw new IllegalArgumentException("similarity must be above 0 and at most 1");
+        }
+        ensureCurrent();
+        if (bands == null || (staleBands >= MIN_STALE_TO_REBUILD && staleBands > repository.size())) {
+            buildBands();
+        }
+        long[] shingles = shingles(question);
+        int[] signature = signature(shingles);
+        Set<Integer> seen = new HashSet<>();
+        int mask = bands.length - 1;
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signature, band);
+            for (int slot = slot(key, mask); bands[slot] != 0; slot = (slot + 1) & mask) {
+                if ((int) (bands[slot] >>> 32) != key) {
+                    continue;
+                }
+                int ordinal = (int) bands[slot] - 1;
+                if (!seen.add(ordinal)) {
+                    continue;
+                }
+                Question candidate = repository.getById(QuestionOrdinals.id(ordinal));
+                if (candidate != null && candidate != question
+                        && jaccard(shingles, shingles(candidate)) >= similarity) {
+                    return candidate;
+                }
+                if (seen.size() >= MAX_CANDIDATES) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void ensureCurrent() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+        for (int i = 0; i < repository.size(); i++) {
+            count(contentHash(repository.peek(i)), 1);
+        }
+    }
+
+    // Exact table
+
+    private int find(long hash) {
+        int mask = hashes.length - 1;
+        for (int slot = (int) hash & mask; hashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void count(long hash, int delta) {
+        int slot = find(hash);
+        if (slot >= 0) {
+            counts[slot] += delta;
+            if (counts[slot] <= 0) {
+                delete(slot);
+            }
+            return;
+        }
+        if (delta < 0) {
+            return;
+        }
+        if ((distinct + 1) * 2 > hashes.length) {
+            growHashes();
+        }
+        int mask = hashes.length - 1;
+        slot = (int) hash & mask;
+        while (hashes[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        counts[slot] = delta;
+        distinct++;
+    }
+
+    // Linear-probing delete: shifts later entries of the run back so lookups never stop early
+    private void delete(int slot) {
+        int mask = hashes.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; hashes[next] != 0; next = (next + 1) & mask) {
+            int home = (int) hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                hashes[free] = hashes[next];
+                counts[free] = counts[next];
+                free = next;
+            }
+        }
+        hashes[free] = 0;
+        counts[free] = 0;
+        distinct--;
+    }
+
+    private void growHashes() {
+        long[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        hashes = new long[oldHashes.length * 2];
+        counts = new int[oldHashes.length * 2];
+        int mask = hashes.length - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                int slot = (int) oldHashes[i] & mask;
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Near-duplicate table
+
+    private void buildBands() {
+        int capacity = Integer.highestOneBit(Math.max(64, repository.size() * BANDS * 3 / 2)) * 2;
+        bands = new long[capacity];
+        bandEntries = 0;
+        staleBands = 0;
+        for (int i = 0; i < repository.size(); i++) {
+            addBands(repository.peek(i));
+        }
+    }
+
+    private void addBands(Question question) {
+        if ((bandEntries + BANDS) * 4L > bands.length * 3L) {
+            growBands();
+        }
+        int[] signature = signature(shingles(question));
+        long ordinal = QuestionOrdinals.ordinal(question.getId()) + 1L;
+        int mask = bands.length - 1;
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signature, band);
+            int slot = slot(key, mask);
+            int sharing = 0;
+            while (bands[slot] != 0 && sharing < MAX_PER_KEY) {
+                if ((int) (bands[slot] >>> 32) == key) {
+                    sharing++;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (sharing < MAX_PER_KEY) {
+                bands[slot] = ((long) key << 32) | ordinal;
+                bandEntries++;
+            }
+        }
+    }
+
+    private void growBands() {
+        long[] old = bands;
+        bands = new long[old.length * 2];
+        int mask = bands.length - 1;
+        for (long entry : old) {
+            if (entry != 0) {
+                int slot = slot((int) (entry >>> 32), mask);
+                while (bands[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                bands[slot] = entry;
+            }
+        }
+    }
+
+    private static int slot(int key, int mask) {
+        return (int) mix(key) & mask;
+    }
+
+    /**
+     * Hashes of the question's words and two-word shingles, sorted and
+     * without repeats. The words keep short questions from being too sparse
+     * for a stable estimate.
+     */
+    static long[] shingles(Question question) {
+        String content = normalize(question);
+        long[] shingles = new long[32];
+        int count = 0;
+        long previous = 0;
+        boolean first = true;
+        int length = content.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(content.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            long word = 0xcbf29ce484222325L;
+            while (i < length && Character.isLetterOrDigit(content.charAt(i))) {
+                word = (word ^ content.charAt(i)) * 0x100000001b3L;
+                i++;
+            }
+            if (count + 2 > shingles.length) {
+                shingles = Arrays.copyOf(shingles, shingles.length * 2);
+            }
+            shingles[count++] = mix(word);
+            if (!first) {
+                shingles[count++] = mix(previous * 31 + word + 1);
+            }
+            previous = word;
+            first = false;
+        }
+        Arrays.sort(shingles, 0, count);
+        int distinct = 0;
+        for (int j = 0; j < count; j++) {
+            if (distinct == 0 || shingles[j] != shingles[distinct - 1]) {
+                shingles[distinct++] = shingles[j];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    private static int[] signature(long[] shingles) {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < HASHES; i++) {
+                int value = (int) ((MULTIPLIERS[i] * shingle + INCREMENTS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // One band of the signature folded into a key; the band number keeps equal rows of different bands apart
+    private static int bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[row];
+        }
+        return (int) mix(key);
+    }
+
+    // Jaccard similarity of two sorted sets of shingles
+    private static double jaccard(long[] a, long[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 1;
+        }
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+}
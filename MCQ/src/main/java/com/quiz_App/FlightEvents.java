@@ -0,0 +1,149 @@
+package com.quiz_App;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Java Flight Recorder events for the operations that touch the whole bank
+ * or a whole quiz, so a recording shows which of them was running when a
+ * GC or a pause happened. They appear under "MCQ" in JDK Mission Control.
+ *
+ * Callers {@code begin()} an event before the work and fill in its fields
+ * only if {@code shouldCommit()} says a recording wants it. When no
+ * recording is running an event costs next to nothing.
+ */
+public final class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("mcq.Load")
+    @Label("Load Data")
+    @Category({"MCQ", "Question Bank"})
+    @Description("Opening the bank, history, analytics and journal at startup")
+    public static final class Load extends Event {
+        @Label("Source")
+        @Description("Where the bank came from: store, legacy or none")
+        public String source;
+
+        @Label("Bank Size")
+        public int bankSize;
+
+        @Label("Data File Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("mcq.Save")
+    @Label("Save Snapshot")
+    @Category({"MCQ", "Question Bank"})
+    @Description("Writing the bank to a new snapshot, on save or when the journal is compacted")
+    public static final class Save extends Event {
+        @Label("Bank Size")
+        public int bankSize;
+
+        @Label("Snapshot Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("mcq.ImportBatch")
+    @Label("Import Batch")
+    @Category({"MCQ", "Question Bank"})
+    @Description("One parsed chunk of an import file being added to the bank")
+    public static final class ImportBatch extends Event {
+        @Label("File")
+        public String path;
+
+        @Label("Batch")
+        public int batch;
+
+        @Label("Rows")
+        public int rows;
+
+        @Label("Rejected Rows")
+        public long rejected;
+
+        @Label("Chunk Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("mcq.UndoSnapshot")
+    @Label("Undo Snapshot")
+    @Category({"MCQ", "Question Bank"})
+    @Description("An operation recorded in, undone from or redone from the undo history")
+    public static final class UndoSnapshot extends Event {
+        @Label("Action")
+        @Description("record, undo or redo")
+        public String action;
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Questions")
+        @Description("Questions the operation keeps alive")
+        public long questions;
+
+        @Label("Retained Questions")
+        @Description("Questions kept alive by the whole history")
+        public long retainedQuestions;
+
+        @Label("Bank Size")
+        public int bankSize;
+    }
+
+    @Name("mcq.QuizAssembly")
+    @Label("Quiz Assembly")
+    @Category({"MCQ", "Quiz"})
+    @Description("Drawing copies of questions for a quiz from those matching its filters")
+    public static final class QuizAssembly extends Event {
+        @Label("Category")
+        public String category;
+
+        @Label("Difficulty")
+        public String difficulty;
+
+        @Label("Pool Size")
+        @Description("Questions matching the filters")
+        public int poolSize;
+
+        @Label("Questions")
+        public int questions;
+    }
+
+    @Name("mcq.QuizGrading")
+    @Label("Quiz Grading")
+    @Category({"MCQ", "Quiz"})
+    @Description("Recording a finished attempt in the history, analytics and ratings")
+    public static final class QuizGrading extends Event {
+        @Label("Category")
+        public String category;
+
+        @Label("Difficulty")
+        public String difficulty;
+
+        @Label("Questions")
+        public int questions;
+
+        @Label("Score")
+        public int score;
+
+        // Ends the event and commits it with the attempt's details, if a recording wants it
+        public void commit(QuizAttempt attempt) {
+            end();
+            if (shouldCommit()) {
+                category = attempt.getCategory();
+                difficulty = attempt.getDifficultyLevel();
+                questions = attempt.answerCount();
+                score = attempt.getScore();
+                commit();
+            }
+        }
+    }
+}
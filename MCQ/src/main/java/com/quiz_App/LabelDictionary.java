@@ -0,0 +1,98 @@
+package com.quiz_App;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns category and difficulty names into small integer codes.
+ *
+ * Questions and quiz attempts hold codes instead of their own copies of
+ * the names, and the indexes and statistics are keyed on codes. Every name
+ * gets a code as entered, and every code also has a key: the code of the
+ * trimmed, lower-cased name, which is how the filters compare. Two names
+ * match a filter exactly when their keys are equal, so filtering is an
+ * integer comparison.
+ *
+ * Codes only grow and are never reused, so they are stable for the life
+ * of the process. They are not written to disk as such; stores keep the
+ * names and map them back to codes when they are read.
+ */
+public final class LabelDictionary {
+    public static final LabelDictionary CATEGORIES = new LabelDictionary();
+    // The three levels the admin menu accepts get the first codes
+    public static final LabelDictionary DIFFICULTIES = new LabelDictionary("Easy", "Medium", "Hard");
+
+    // Codes of names that are not in the dictionary
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    // Name and key of each code; replaced, never modified, when a code is added
+    private volatile String[] names = new String[0];
+    private volatile int[] keys = new int[0];
+
+    private LabelDictionary(String... seeded) {
+        for (String name : seeded) {
+            code(name);
+        }
+    }
+
+    // Normalizes a name the way the filters compare them
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The code of a name, adding it if it is new; null is treated as ""
+    public int code(String name) {
+        String label = name == null ? "" : name;
+        Integer code = codes.get(label);
+        return code != null ? code : add(label);
+    }
+
+    private synchronized int add(String label) {
+        Integer existing = codes.get(label);
+        if (existing != null) {
+            return existing;
+        }
+        String normalized = normalize(label);
+        int code = names.length;
+        String[] grownNames = Arrays.copyOf(names, code + 1);
+        int[] grownKeys = Arrays.copyOf(keys, code + 1);
+        grownNames[code] = label;
+        Integer keyCode = normalized.equals(label) ? (Integer) code : codes.get(normalized);
+        if (keyCode == null) {
+            // The normalized form gets the next code itself
+            grownNames = Arrays.copyOf(grownNames, code + 2);
+            grownKeys = Arrays.copyOf(grownKeys, code + 2);
+            grownNames[code + 1] = normalized;
+            grownKeys[code + 1] = code + 1;
+            keyCode = code + 1;
+        }
+        grownKeys[code] = keyCode;
+        names = grownNames;
+        keys = grownKeys;
+        codes.put(label, code);
+        if (keyCode == code + 1) {
+            codes.put(normalized, code + 1);
+        }
+        return code;
+    }
+
+    public String name(int code) {
+        return names[code];
+    }
+
+    // The code every name matching this code's name under the filters shares
+    public int key(int code) {
+        return keys[code];
+    }
+
+    // The key a filter value matches, or UNKNOWN if no name matches it; never adds a code
+    public int keyOf(String filter) {
+        Integer code = codes.get(normalize(filter));
+        return code == null ? UNKNOWN : keys[code];
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
@@ -1,30 +1,71 @@
 package com.quiz_App;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.stream.Collectors;
+import java.time.format.DateTimeParseException;
 
 public class MCQApplication {
     // Class to represent an MCQ question
     public static class Question implements Serializable {
+        // Pinned to the value of earlier releases so saved data keeps loading
+        private static final long serialVersionUID = -771923281186827871L;
+
         private UUID id;
         private String question;
         private String[] options;
         private char correctOption;
-        private String category;
-        private String difficultyLevel;
+        // Codes in LabelDictionary.CATEGORIES and DIFFICULTIES
+        private int category;
+        private int difficultyLevel;
         private LocalDateTime createdAt;
 
+        // Serialized as in earlier releases, with the category and difficulty names
+        private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", UUID.class),
+            new ObjectStreamField("question", String.class),
+            new ObjectStreamField("options", String[].class),
+            new ObjectStreamField("correctOption", char.class),
+            new ObjectStreamField("category", String.class),
+            new ObjectStreamField("difficultyLevel", String.class),
+            new ObjectStreamField("createdAt", LocalDateTime.class)
+        };
+
         public Question(String question, String[] options, char correctOption, 
                        String category, String difficultyLevel) {
             this.id = UUID.randomUUID();
             this.question = question;
             this.options = options;
             this.correctOption = correctOption;
+            this.category = LabelDictionary.CATEGORIES.code(category);
+            this.difficultyLevel = LabelDictionary.DIFFICULTIES.code(difficultyLevel);
+            this.createdAt = LocalDateTime.now();
+        }
+
+        // Recreates a stored question with its original id and creation time
+        Question(UUID id, String question, String[] options, char correctOption,
+                 String category, String difficultyLevel, LocalDateTime createdAt) {
+            this.id = id;
+            this.question = question;
+            this.options = options;
+            this.correctOption = correctOption;
+            this.category = LabelDictionary.CATEGORIES.code(category);
+            this.difficultyLevel = LabelDictionary.DIFFICULTIES.code(difficultyLevel);
+            this.createdAt = createdAt;
+        }
+
+        // Same, with the category and difficulty already coded
+        Question(UUID id, String question, String[] options, char correctOption,
+                 int category, int difficultyLevel, LocalDateTime createdAt) {
+            this.id = id;
+            this.question = question;
+            this.options = options;
+            this.correctOption = correctOption;
             this.category = category;
             this.difficultyLevel = difficultyLevel;
-            this.createdAt = LocalDateTime.now();
+            this.createdAt = createdAt;
         }
 
         // Getters and setters
@@ -32,44 +73,167 @@ public class MCQApplication {
         public String getQuestion() { return question; }
         public String[] getOptions() { return options; }
         public char getCorrectOption() { return correctOption; }
-        public String getCategory() { return category; }
-        public String getDifficultyLevel() { return difficultyLevel; }
+        public String getCategory() { return LabelDictionary.CATEGORIES.name(category); }
+        public String getDifficultyLevel() { return LabelDictionary.DIFFICULTIES.name(difficultyLevel); }
         public LocalDateTime getCreatedAt() { return createdAt; }
 
+        int categoryCode() { return category; }
+        int difficultyCode() { return difficultyLevel; }
+
         public void setQuestion(String question) { this.question = question; }
         public void setOptions(String[] options) { this.options = options; }
         public void setCorrectOption(char correctOption) { this.correctOption = correctOption; }
-        public void setCategory(String category) { this.category = category; }
-        public void setDifficultyLevel(String difficultyLevel) { this.difficultyLevel = difficultyLevel; }
+        public void setCategory(String category) { this.category = LabelDictionary.CATEGORIES.code(category); }
+        public void setDifficultyLevel(String difficultyLevel) {
+            this.difficultyLevel = LabelDictionary.DIFFICULTIES.code(difficultyLevel);
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("id", id);
+            fields.put("question", question);
+            fields.put("options", options);
+            fields.put("correctOption", correctOption);
+            fields.put("category", getCategory());
+            fields.put("difficultyLevel", getDifficultyLevel());
+            fields.put("createdAt", createdAt);
+            out.writeFields();
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            ObjectInputStream.GetField fields = in.readFields();
+            id = (UUID) fields.get("id", null);
+            question = (String) fields.get("question", null);
+            options = (String[]) fields.get("options", null);
+            correctOption = fields.get("correctOption", ' ');
+            category = LabelDictionary.CATEGORIES.code((String) fields.get("category", null));
+            difficultyLevel = LabelDictionary.DIFFICULTIES.code((String) fields.get("difficultyLevel", null));
+            createdAt = (LocalDateTime) fields.get("createdAt", null);
+        }
     }
 
     // Class to track quiz history
     public static class QuizAttempt implements Serializable {
-        private List<QuizAnswer> answers;
+        // Pinned so histories serialized by earlier releases still load
+        private static final long serialVersionUID = -7893933131983443221L;
+
+        // Answers as columns: the QuestionOrdinals ordinal of each question, the
+        // answer given (an ASCII letter, or a blank for skipped) and whether it was right
+        private int[] questions;
+        private byte[] userAnswers;
+        private BitSet correctAnswers;
+        private int answerCount;
         private int score;
-        private String category;
-        private String difficultyLevel;
+        // Codes in LabelDictionary.CATEGORIES and DIFFICULTIES
+        private int category;
+        private int difficultyLevel;
         private LocalDateTime timestamp;
 
+        // Serialized as in earlier releases: a list of QuizAnswer and the category and difficulty names
+        private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("answers", List.class),
+            new ObjectStreamField("score", int.class),
+            new ObjectStreamField("category", String.class),
+            new ObjectStreamField("difficultyLevel", String.class),
+            new ObjectStreamField("timestamp", LocalDateTime.class)
+        };
+
         public QuizAttempt(String category, String difficultyLevel) {
-            this.answers = new ArrayList<>();
+            this(category, difficultyLevel, LocalDateTime.now());
+        }
+
+        // Restores an attempt read back from the history store
+        QuizAttempt(String category, String difficultyLevel, LocalDateTime timestamp) {
+            this.questions = new int[0];
+            this.userAnswers = new byte[0];
+            this.correctAnswers = new BitSet();
             this.score = 0;
-            this.category = category;
-            this.difficultyLevel = difficultyLevel;
-            this.timestamp = LocalDateTime.now();
+            this.category = LabelDictionary.CATEGORIES.code(category);
+            this.difficultyLevel = LabelDictionary.DIFFICULTIES.code(difficultyLevel);
+            this.timestamp = timestamp;
         }
 
         public void addAnswer(UUID questionId, char userAnswer, boolean correct) {
-            answers.add(new QuizAnswer(questionId, userAnswer, correct));
-            if (correct) score++;
+            if (answerCount == questions.length) {
+                ensureCapacity(Math.max(10, answerCount + (answerCount >> 1)));
+            }
+            questions[answerCount] = QuestionOrdinals.ordinal(questionId);
+            userAnswers[answerCount] = (byte) userAnswer;
+            if (correct) {
+                correctAnswers.set(answerCount);
+                score++;
+            }
+            answerCount++;
+        }
+
+        // Makes room for this many answers in total, e.g. the length of a quiz
+        void ensureCapacity(int capacity) {
+            if (capacity > questions.length) {
+                questions = Arrays.copyOf(questions, capacity);
+                userAnswers = Arrays.copyOf(userAnswers, capacity);
+            }
+        }
+
+        // Read-only view of the answers; each element is made when it is read
+        public List<QuizAnswer> getAnswers() {
+            return new AbstractList<QuizAnswer>() {
+                @Override
+                public QuizAnswer get(int index) {
+                    Objects.checkIndex(index, answerCount);
+                    return new QuizAnswer(questionIdAt(index), userAnswerAt(index), isCorrectAt(index));
+                }
+
+                @Override
+                public int size() {
+                    return answerCount;
+                }
+            };
         }
 
-        public List<QuizAnswer> getAnswers() { return answers; }
+        int answerCount() { return answerCount; }
+        UUID questionIdAt(int index) { return QuestionOrdinals.id(questions[index]); }
+        int questionOrdinalAt(int index) { return questions[index]; }
+        char userAnswerAt(int index) { return (char) (userAnswers[index] & 0xFF); }
+        boolean isCorrectAt(int index) { return correctAnswers.get(index); }
         public int getScore() { return score; }
+        public String getCategory() { return LabelDictionary.CATEGORIES.name(category); }
+        public String getDifficultyLevel() { return LabelDictionary.DIFFICULTIES.name(difficultyLevel); }
+        public LocalDateTime getTimestamp() { return timestamp; }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("answers", new ArrayList<>(getAnswers()));
+            fields.put("score", score);
+            fields.put("category", getCategory());
+            fields.put("difficultyLevel", getDifficultyLevel());
+            fields.put("timestamp", timestamp);
+            out.writeFields();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            ObjectInputStream.GetField fields = in.readFields();
+            List<QuizAnswer> answers = (List<QuizAnswer>) fields.get("answers", null);
+            questions = new int[0];
+            userAnswers = new byte[0];
+            correctAnswers = new BitSet();
+            if (answers != null) {
+                ensureCapacity(answers.size());
+                for (QuizAnswer answer : answers) {
+                    addAnswer(answer.questionId, answer.userAnswer, answer.correct);
+                }
+            }
+            score = fields.get("score", 0);
+            category = LabelDictionary.CATEGORIES.code((String) fields.get("category", null));
+            difficultyLevel = LabelDictionary.DIFFICULTIES.code((String) fields.get("difficultyLevel", null));
+            timestamp = (LocalDateTime) fields.get("timestamp", null);
+        }
     }
 
     // Class to represent individual answers in a quiz
     static class QuizAnswer implements Serializable {
+        private static final long serialVersionUID = 4065618307425559743L;
+
         private UUID questionId;
         private char userAnswer;
         private boolean correct;
@@ -79,29 +243,80 @@ public class MCQApplication {
             this.userAnswer = userAnswer;
             this.correct = correct;
         }
+
+        public UUID getQuestionId() { return questionId; }
+        public char getUserAnswer() { return userAnswer; }
+        public boolean isCorrect() { return correct; }
     }
 
     // Class to log administrative actions
-    static class AuditLog implements Serializable {
+    public static class AuditLog implements Serializable {
+        // Pinned so audit logs serialized by earlier releases still migrate
+        private static final long serialVersionUID = 5351106537708371061L;
+
         private String action;
         private String details;
         private LocalDateTime timestamp;
 
         public AuditLog(String action, String details) {
+            this(action, details, LocalDateTime.now());
+        }
+
+        // Restores an event read back from the audit files
+        AuditLog(String action, String details, LocalDateTime timestamp) {
             this.action = action;
             this.details = details;
-            this.timestamp = LocalDateTime.now();
+            this.timestamp = timestamp;
         }
+
+        public String getAction() { return action; }
+        public String getDetails() { return details; }
+        public LocalDateTime getTimestamp() { return timestamp; }
     }
 
-    private static final String DATA_FILE = "mcq_data.ser";
+    private static final String DATA_FILE = "mcq_data.bin";
+    // Segment directory of the quiz history store
+    private static final String HISTORY_DIR = "quiz_history";
+    // Serialized history written by the previous release, migrated into the store on load
+    private static final String HISTORY_FILE = "quiz_history.ser";
+    // Serialized bank and history written by earlier releases, read if no store exists yet
+    private static final String LEGACY_DATA_FILE = "mcq_data.ser";
+    // Rolling audit log files
+    private static final String AUDIT_DIR = "audit_log";
+    // Serialized audit log written by earlier releases, migrated into the audit files on load
     private static final String AUDIT_FILE = "audit_log.ser";
-    public static List<Question> questions = new ArrayList<>();
-    public static List<QuizAttempt> quizHistory = new ArrayList<>();
-    public static List<AuditLog> auditLogs = new ArrayList<>();
-    public static Stack<List<Question>> undoStack = new Stack<>();
- // If using Stack for undo operations
-    public static Stack<List<Question>> undoOperations = new Stack<>();
+    private static final String JOURNAL_FILE = "mcq_data.journal";
+    // Per-question answer counts, saved with the bank
+    private static final String ANALYTICS_FILE = "question_stats.bin";
+    private static final int ANALYTICS_LIMIT = 10;
+    // Calibrated question ratings for adaptive quizzes, saved with the bank
+    private static final String RATINGS_FILE = "question_ratings.bin";
+    private static QuestionJournal journal;
+    // Set by the fast-startup launcher: history, analytics, ratings and audit load after the menu is shown
+    private static final boolean DEFER_RECORDS = Boolean.getBoolean("mcq.startup.deferred");
+    private static volatile Thread recordsLoader;
+    public static QuestionRepository questions = new QuestionRepository();
+    public static final CategoryIndex categoryIndex = questions.register(new CategoryIndex());
+    public static final QuestionStatistics statistics = questions.register(new QuestionStatistics());
+    public static final RecencyIndex recencyIndex = questions.register(new RecencyIndex());
+    private static final int RECENT_LIMIT = 10;
+    public static final SearchIndex searchIndex = questions.register(new SearchIndex());
+    private static final int SEARCH_LIMIT = 10;
+    // Questions per page when browsing the whole bank
+    private static final int PAGE_SIZE = 20;
+    private static final ConsoleRenderer renderer = new ConsoleRenderer();
+    public static final DuplicateIndex duplicateIndex = questions.register(new DuplicateIndex(questions));
+    // Default Jaccard similarity for --near-duplicates on import
+    private static final double NEAR_DUPLICATE_SIMILARITY = 0.8;
+    public static final QuizHistory quizHistory = new QuizHistory();
+    public static final QuestionAnalytics questionAnalytics = new QuestionAnalytics();
+    public static final QuestionRatings questionRatings = questions.register(new QuestionRatings(questions));
+    public static final AuditTrail auditLogs = new AuditTrail();
+    // Every finished quiz, whichever way it was taken, is recorded through this
+    public static final AttemptRecorder attempts =
+        new AttemptRecorder(quizHistory, questionAnalytics, questionRatings, auditLogs);
+    public static final UndoHistory undoHistory = new UndoHistory(questions);
+    private static final QuestionSampler sampler = new QuestionSampler();
  
 
     public static void main(String[] args) {
@@ -122,7 +337,7 @@ public class MCQApplication {
                 case 1 -> adminMenu(scanner);
                 case 2 -> userMenu(scanner);
                 case 3 -> {
-                    saveData();
+                    shutdown();
                     System.out.println("Thank you for using the MCQ Application. Goodbye!");
                     return;
                 }
@@ -132,6 +347,7 @@ public class MCQApplication {
     }
 
     private static void adminMenu(Scanner scanner) {
+        awaitRecords();
         while (true) {
             System.out.println("\nAdmin Menu:");
             System.out.println("1. Add Question");
@@ -149,6 +365,10 @@ public class MCQApplication {
             System.out.println("13. View Audit Log");
             System.out.println("14. Reset Database");
             System.out.println("15. Back to Main Menu");
+            System.out.println("16. Search Questions");
+            System.out.println("17. Question Analytics");
+            System.out.println("18. Performance");
+            System.out.println("19. Redo Last Operation");
             System.out.print("Choose an option: ");
 
             int choice = getValidIntInput(scanner);
@@ -158,11 +378,11 @@ public class MCQApplication {
                 case 1 -> addQuestion(scanner);
                 case 2 -> updateQuestion(scanner);
                 case 3 -> deleteQuestion(scanner);
-                case 4 -> viewAllQuestions();
+                case 4 -> viewAllQuestions(scanner);
                 case 5 -> viewQuestionsByCategory(scanner);
                 case 6 -> viewQuestionsByDifficulty(scanner);
 				case 7 -> viewQuestionsByCategoryAndDifficulty(scanner);
-                case 8 -> viewRecentQuestions();
+                case 8 -> viewRecentQuestions(scanner);
                 case 9 -> importQuestions(scanner);
                 case 10 -> exportQuestions(scanner);
                 case 11 -> viewStatistics();
@@ -170,18 +390,26 @@ public class MCQApplication {
                 case 13 -> viewAuditLog();
                 case 14 -> resetDatabase(scanner);
                 case 15 -> { return; }
+                case 16 -> searchQuestions(scanner);
+                case 17 -> viewQuestionAnalytics(scanner);
+                case 18 -> viewPerformance();
+                case 19 -> redoLastOperation();
                 default -> System.out.println("Invalid choice. Please try again.");
             }
+            reportJournalFailure();
+            checkpointIfNeeded();
         }
     }
 
     private static void userMenu(Scanner scanner) {
+        awaitRecords();
         while (true) {
             System.out.println("\nUser Menu:");
             System.out.println("1. Take New Quiz");
             System.out.println("2. Retake Last Quiz");
             System.out.println("3. View Quiz History");
             System.out.println("4. Back to Main Menu");
+            System.out.println("5. Take Adaptive Quiz");
             System.out.print("Choose an option: ");
 
             int choice = getValidIntInput(scanner);
@@ -192,6 +420,7 @@ public class MCQApplication {
                 case 2 -> takeQuiz(scanner, true);
                 case 3 -> viewQuizHistory();
                 case 4 -> { return; }
+                case 5 -> takeAdaptiveQuiz(scanner);
                 default -> System.out.println("Invalid choice. Please try again.");
             }
 	}}
@@ -260,14 +489,16 @@ public static void addQuestion(Scanner scanner) {
         } while (difficultyLevel.isEmpty());
 
 
-        // Save current state for undo
-        undoStack.push(new ArrayList<>(questions));
-
         // Create and add the new question
         Question newQuestion = new Question(questionText, options, correctOption, category, difficultyLevel);
+        if (duplicateIndex.containsExact(newQuestion)) {
+            System.out.println("Error: A question with the same text and options already exists.");
+            return;
+        }
         questions.add(newQuestion);
+        undoHistory.record(UndoHistory.added(questions, newQuestion));
         
-        logAction1("ADD", "Added question: " + questionText);
+        logAction("ADD", "Added question: " + questionText);
         System.out.println("Question added successfully!");
     } catch (Exception e) {
         System.out.println("Error adding question: " + e.getMessage());
@@ -283,40 +514,46 @@ public static void addQuestion(Scanner scanner) {
 
         try {
             UUID questionId = UUID.fromString(id);
-            Optional<Question> questionOpt = questions.stream()
-                .filter(q -> q.getId().equals(questionId))
-                .findFirst();
+            Optional<Question> questionOpt = questions.findById(questionId);
 
             if (questionOpt.isPresent()) {
                 Question question = questionOpt.get();
-                undoStack.push(new ArrayList<>(questions));
+                UndoHistory.QuestionState before = UndoHistory.QuestionState.of(question);
 
                 System.out.println("Current question: " + question.getQuestion());
                 System.out.print("Enter new question (press Enter to keep current): ");
                 String newQuestion = scanner.nextLine();
-                if (!newQuestion.trim().isEmpty()) {
-                    question.setQuestion(newQuestion);
-                }
 
                 // Update options
+                String[] newOptions = question.getOptions().clone();
                 for (int i = 0; i < 4; i++) {
                     System.out.println("Current option " + (char)('A' + i) + ": " + 
                                      question.getOptions()[i]);
                     System.out.print("Enter new option (press Enter to keep current): ");
                     String newOption = scanner.nextLine();
                     if (!newOption.trim().isEmpty()) {
-                        question.getOptions()[i] = newOption;
+                        newOptions[i] = newOption;
                     }
                 }
 
                 System.out.println("Current correct option: " + question.getCorrectOption());
                 System.out.print("Enter new correct option (press Enter to keep current): ");
                 String newCorrectOption = scanner.nextLine();
-                if (!newCorrectOption.trim().isEmpty()) {
-                    question.setCorrectOption(newCorrectOption.toUpperCase().charAt(0));
-                }
 
-                logAction1("UPDATE", "Updated question: " + question.getQuestion());
+                // Apply all changes at once so the indexes see a consistent question
+                questions.update(question, q -> {
+                    if (!newQuestion.trim().isEmpty()) {
+                        q.setQuestion(newQuestion);
+                    }
+                    q.setOptions(newOptions);
+                    if (!newCorrectOption.trim().isEmpty()) {
+                        q.setCorrectOption(newCorrectOption.toUpperCase().charAt(0));
+                    }
+                });
+                undoHistory.record(UndoHistory.updated(questions, question,
+                    before, UndoHistory.QuestionState.of(question)));
+
+                logAction("UPDATE", "Updated question: " + question.getQuestion());
                 System.out.println("Question updated successfully!");
             } else {
                 System.out.println("Error: Question not found.");
@@ -337,14 +574,12 @@ public static void addQuestion(Scanner scanner) {
             String confirm = scanner.nextLine();
 
             if (confirm.equalsIgnoreCase("y")) {
-                undoStack.push(new ArrayList<>(questions));
-                Optional<Question> questionOpt = questions.stream()
-                    .filter(q -> q.getId().equals(questionId))
-                    .findFirst();
+                int index = questions.indexOfId(questionId);
+                Optional<Question> questionOpt = Optional.ofNullable(questions.removeById(questionId));
 
                 if (questionOpt.isPresent()) {
-                    questions.remove(questionOpt.get());
-                    logAction1("DELETE", "Deleted question: " + questionOpt.get().getQuestion());
+                    undoHistory.record(UndoHistory.deleted(questions, questionOpt.get(), index));
+                    logAction("DELETE", "Deleted question: " + questionOpt.get().getQuestion());
                     System.out.println("Question deleted successfully!");
                 } else {
                     System.out.println("Error: Question not found.");
@@ -358,6 +593,11 @@ public static void addQuestion(Scanner scanner) {
   
 
     public static void takeQuiz(Scanner scanner, boolean retake) {
+        takeQuiz(scanner, retake, attempts);
+    }
+
+    // Takes a quiz whose attempt is recorded by recorder instead of the application's own
+    public static void takeQuiz(Scanner scanner, boolean retake, AttemptRecorder recorder) {
         if (questions.isEmpty()) {
             System.out.println("No questions available. Please add questions first.");
             return;
@@ -368,14 +608,9 @@ public static void addQuestion(Scanner scanner) {
         List<Question> quizQuestions;
 
         if (!retake) {
-            // Extract unique categories
-            Set<String> categories = questions.stream()
-                .map(Question::getCategory)
-                .collect(Collectors.toSet());
-
             // Display available categories
             System.out.println("\nAvailable Categories:");
-            categories.forEach(System.out::println);
+            categoryIndex.categories().forEach(System.out::println);
             System.out.println("Press Enter to include all categories.");
 
             // Get user's choice
@@ -385,19 +620,22 @@ public static void addQuestion(Scanner scanner) {
             System.out.print("Enter difficulty level (Easy/Medium/Hard, press Enter for all): ");
             selectedDifficulty = scanner.nextLine();
 
-            quizQuestions = questions.stream()
-                .filter(q -> selectedCategory.isEmpty() || q.getCategory().equalsIgnoreCase(selectedCategory))
-                .filter(q -> selectedDifficulty.isEmpty() || q.getDifficultyLevel().equalsIgnoreCase(selectedDifficulty))
-                .collect(Collectors.toList());
+            // Draw straight from the bank or the index view; nothing is copied
+            long filtering = OperationMetrics.start();
+            quizQuestions = selectedCategory.isEmpty() && selectedDifficulty.isEmpty()
+                ? questions
+                : categoryIndex.find(selectedCategory, selectedDifficulty);
+            OperationMetrics.QUIZ_FILTER.stop(filtering);
         } else {
-            if (quizHistory.isEmpty()) {
+            QuizHistory history = recorder.history();
+            if (history.isEmpty()) {
                 System.out.println("No previous quiz to retake.");
                 return;
             }
-            QuizAttempt lastQuiz = quizHistory.get(quizHistory.size() - 1);
-            selectedCategory = lastQuiz.category;
-            selectedDifficulty = lastQuiz.difficultyLevel;
-            quizQuestions = new ArrayList<>(questions);
+            QuizAttempt lastQuiz = history.get(history.size() - 1);
+            selectedCategory = lastQuiz.getCategory();
+            selectedDifficulty = lastQuiz.getDifficultyLevel();
+            quizQuestions = questions;
         }
 
         if (quizQuestions.isEmpty()) {
@@ -416,86 +654,163 @@ public static void addQuestion(Scanner scanner) {
             return; // Exit the quiz-taking process
         }
 
-        Collections.shuffle(quizQuestions);
-        quizQuestions = quizQuestions.subList(0, numQuestions);
-
-        QuizAttempt attempt = new QuizAttempt(selectedCategory, selectedDifficulty);
-        int questionNum = 1;
+        // The session keeps its own copies, so later edits to the bank cannot change this quiz
+        long drawing = OperationMetrics.start();
+        FlightEvents.QuizAssembly assembly = new FlightEvents.QuizAssembly();
+        assembly.begin();
+        QuizSession session = new QuizSession(selectedCategory, selectedDifficulty,
+            sampler.sample(quizQuestions, numQuestions));
+        OperationMetrics.QUIZ_DRAW.stop(drawing);
+        assembly.end();
+        if (assembly.shouldCommit()) {
+            assembly.category = selectedCategory;
+            assembly.difficulty = selectedDifficulty;
+            assembly.poolSize = quizQuestions.size();
+            assembly.questions = session.size();
+            assembly.commit();
+        }
 
         System.out.println("\nInstructions: Enter A/B/C/D to answer, S to skip, or E to exit the quiz.");
 
-        for (Question question : quizQuestions) {
-            System.out.println("\nQuestion " + questionNum + "/" + numQuestions + ":");
-            System.out.println(question.getQuestion());
-
-            // Display options in their original order
-            for (int i = 0; i < 4; i++) {
-                System.out.println((char) ('A' + i) + ". " + question.getOptions()[i]);
+        while (session.hasNext()) {
+            if (!askCurrentQuestion(scanner, session, numQuestions)) {
+                break;
             }
+        }
 
-            System.out.print("Your answer (A/B/C/D, S to skip, E to exit): ");
-            String input = scanner.nextLine().toUpperCase();
+        // Mark all remaining questions as incorrect if user exits early
+        QuizAttempt attempt = session.finish();
+        recorder.record(session);
+        System.out.println("\nQuiz completed!");
+        displayQuizSummary(attempt);
+    }
 
-            if (input.equals("E")) {
-                System.out.println("\nExiting quiz... All remaining unanswered questions will be marked as incorrect.");
-                break;
-            } else if (input.equals("S")) {
-                attempt.addAnswer(question.getId(), ' ', false);
-                System.out.println("Question skipped.");
-            } else if (input.length() == 1 && input.charAt(0) >= 'A' && input.charAt(0) <= 'D') {
-                char userAnswer = input.charAt(0);
-                boolean correct = (userAnswer == question.getCorrectOption());
+    /**
+     * Questions picked one at a time to match the taker: each answer moves
+     * the estimated ability, and the next question is the closest in rating
+     * that was not asked yet.
+     */
+    public static void takeAdaptiveQuiz(Scanner scanner) {
+        if (questions.isEmpty()) {
+            System.out.println("No questions available. Please add questions first.");
+            return;
+        }
 
-                attempt.addAnswer(question.getId(), userAnswer, correct);
+        System.out.println("\nAvailable Categories:");
+        categoryIndex.categories().forEach(System.out::println);
+        System.out.println("Press Enter to include all categories.");
+        System.out.print("Enter category: ");
+        String selectedCategory = scanner.nextLine();
 
-                if (correct) {
-                    System.out.println("Correct! Well done!");
-                } else {
-                    System.out.println("Wrong. The correct answer was " + question.getCorrectOption() + ".");
-                }
-            } else {
-                System.out.println("Invalid input. Question marked as incorrect.");
-                attempt.addAnswer(question.getId(), ' ', false);
-            }
-            questionNum++;
+        int available = selectedCategory.isEmpty()
+            ? questions.size()
+            : categoryIndex.findByCategory(selectedCategory).size();
+        if (available == 0) {
+            System.out.println("No questions available for selected criteria.");
+            return;
         }
 
-        // Mark all remaining questions as incorrect if user exits early
-        if (questionNum <= numQuestions) {
-            for (int i = questionNum - 1; i < numQuestions; i++) {
-                attempt.addAnswer(quizQuestions.get(i).getId(), ' ', false);
+        System.out.print("Enter number of questions (max " + available + "): ");
+        int numQuestions = getValidIntInput(scanner);
+        scanner.nextLine(); // Consume newline
+        if (numQuestions > available) {
+            System.out.println("Error: Only " + available + " questions are available in category '"
+                    + selectedCategory + "'.");
+            return;
+        }
+
+        QuizSession session = new QuizSession(selectedCategory, "Adaptive", List.of());
+        QuizAttempt attempt = session.getAttempt();
+        Set<UUID> asked = new HashSet<>();
+        double ability = QuestionRatings.START_ABILITY;
+        int answered = 0;
+
+        System.out.println("\nInstructions: Enter A/B/C/D to answer, S to skip, or E to exit the quiz.");
+
+        while (session.size() < numQuestions) {
+            Question question = questionRatings.next(ability, selectedCategory, asked);
+            if (question == null) {
+                break;
+            }
+            asked.add(question.getId());
+            session.append(question);
+            if (!askCurrentQuestion(scanner, session, numQuestions)) {
+                break;
+            }
+            int last = attempt.answerCount() - 1;
+            if (attempt.userAnswerAt(last) != ' ') {
+                ability = QuestionRatings.nextAbility(ability, answered++,
+                    questionRatings.ratingOf(question.getId()), attempt.isCorrectAt(last));
             }
         }
 
-        quizHistory.add(attempt);
+        session.finish();
+        attempts.record(session);
         System.out.println("\nQuiz completed!");
         displayQuizSummary(attempt);
+        System.out.println("\nEstimated ability: " + Math.round(ability));
     }
 
+    // Shows the current question and takes its answer; returns false if the taker chose to exit
+    private static boolean askCurrentQuestion(Scanner scanner, QuizSession session, int total) {
+        Question question = session.current();
+        System.out.println("\nQuestion " + session.number() + "/" + total + ":");
+        System.out.println(question.getQuestion());
+
+        // Display options in their original order
+        for (int i = 0; i < 4; i++) {
+            System.out.println((char) ('A' + i) + ". " + question.getOptions()[i]);
+        }
+
+        System.out.print("Your answer (A/B/C/D, S to skip, E to exit): ");
+        String input = scanner.nextLine().toUpperCase();
+
+        if (input.equals("E")) {
+            System.out.println("\nExiting quiz... All remaining unanswered questions will be marked as incorrect.");
+            return false;
+        } else if (input.equals("S")) {
+            session.skip();
+            System.out.println("Question skipped.");
+        } else if (input.length() == 1 && input.charAt(0) >= 'A' && input.charAt(0) <= 'D') {
+            boolean correct = session.answer(input.charAt(0));
+
+            if (correct) {
+                System.out.println("Correct! Well done!");
+            } else {
+                System.out.println("Wrong. The correct answer was " + question.getCorrectOption() + ".");
+            }
+        } else {
+            System.out.println("Invalid input. Question marked as incorrect.");
+            session.skip();
+        }
+        return true;
+    }
+
+    // Keeps a finished attempt in the history and counts it towards analytics and ratings
 
 
     public static void displayQuizSummary(QuizAttempt attempt) {
-        System.out.println("\nQuiz Summary:");
-        System.out.println("Score: " + attempt.getScore() + "/" + attempt.getAnswers().size());
-        System.out.println("Percentage: " + 
+        long start = OperationMetrics.start();
+        renderer.line("\nQuiz Summary:");
+        renderer.line("Score: " + attempt.getScore() + "/" + attempt.getAnswers().size());
+        renderer.line("Percentage: " + 
                           (attempt.getScore() * 100.0 / attempt.getAnswers().size()) + "%");
         
-        System.out.println("\nDetailed Answer Review:");
+        renderer.line("\nDetailed Answer Review:");
         for (int i = 0; i < attempt.getAnswers().size(); i++) {
             QuizAnswer answer = attempt.getAnswers().get(i);
-            Question question = questions.stream()
-                .filter(q -> q.getId().equals(answer.questionId))
-                .findFirst()
-                .orElse(null);
+            Question question = questions.getById(answer.questionId);
             
             if (question != null) {
-                System.out.println("\nQuestion " + (i + 1) + ": " + question.getQuestion());
-                System.out.println("Your answer: " + 
+                renderer.line("\nQuestion " + (i + 1) + ": " + question.getQuestion());
+                renderer.line("Your answer: " + 
                                  (answer.userAnswer == ' ' ? "Skipped" : answer.userAnswer));
-                System.out.println("Correct answer: " + question.getCorrectOption());
-                System.out.println("Result: " + (answer.correct ? "Correct" : "Incorrect"));
+                renderer.line("Correct answer: " + question.getCorrectOption());
+                renderer.line("Result: " + (answer.correct ? "Correct" : "Incorrect"));
             }
         }
+        renderer.flush();
+        OperationMetrics.QUIZ_SUMMARY.stop(start);
     }
 
     public static void viewQuizHistory() {
@@ -504,17 +819,18 @@ public static void addQuestion(Scanner scanner) {
             return;
         }
 
-        System.out.println("\nQuiz History:");
+        renderer.line("\nQuiz History:");
         for (int i = 0; i < quizHistory.size(); i++) {
             QuizAttempt attempt = quizHistory.get(i);
-            System.out.println("\nAttempt " + (i + 1) + ":");
-            System.out.println("Category: " + 
-                             (attempt.category.isEmpty() ? "All" : attempt.category));
-            System.out.println("Difficulty: " + 
-                             (attempt.difficultyLevel.isEmpty() ? "All" : attempt.difficultyLevel));
-            System.out.println("Score: " + attempt.getScore() + "/" + attempt.getAnswers().size());
-            System.out.println("Date: " + attempt.timestamp);
+            renderer.line("\nAttempt " + (i + 1) + ":");
+            renderer.line("Category: " + 
+                             (attempt.getCategory().isEmpty() ? "All" : attempt.getCategory()));
+            renderer.line("Difficulty: " + 
+                             (attempt.getDifficultyLevel().isEmpty() ? "All" : attempt.getDifficultyLevel()));
+            renderer.line("Score: " + attempt.getScore() + "/" + attempt.getAnswers().size());
+            renderer.line("Date: " + attempt.timestamp);
         }
+        renderer.flush();
     }
 
     public static void viewAllQuestions() {
@@ -523,152 +839,410 @@ public static void addQuestion(Scanner scanner) {
             return;
         }
 
-        System.out.println("\nAll Questions:");
-        for (Question q : questions) {
-            displayQuestion(q);
+        renderer.line("\nAll Questions:");
+        renderer.questions(questions, 0, questions.size()).flush();
+    }
+
+    // Pages through the whole bank, PAGE_SIZE questions at a time unless --limit says otherwise
+    public static void viewAllQuestions(Scanner scanner) {
+        if (questions.isEmpty()) {
+            System.out.println("No questions available.");
+            return;
+        }
+
+        System.out.print("Press Enter for the first " + PAGE_SIZE + " questions (optional: --page <n> --limit <n>): ");
+        int[] paging = readPaging(CommandOptions.parse(scanner.nextLine()), PAGE_SIZE);
+        if (paging != null) {
+            showPages(scanner, "\nAll Questions:", questions, paging[0], paging[1]);
         }
     }
 
     public static void displayQuestion(Question q) {
-        System.out.println("\nID: " + q.getId());
-        System.out.println("Question: " + q.getQuestion());
-        System.out.println("Category: " + q.getCategory());
-        System.out.println("Difficulty: " + q.getDifficultyLevel());
-        System.out.println("Options:");
-        for (int i = 0; i < q.getOptions().length; i++) {
-            System.out.println((char)('A' + i) + ". " + q.getOptions()[i]);
+        renderer.question(q).flush();
+    }
+
+    // Page number and page size from --page and --limit, or null after saying why they are invalid
+    private static int[] readPaging(CommandOptions options, int defaultLimit) {
+        int page;
+        int limit;
+        try {
+            page = options.getInt("page", 1);
+            limit = options.getInt("limit", defaultLimit);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+        if (page < 1) {
+            System.out.println("Error: --page must be at least 1.");
+            return null;
         }
-        System.out.println("Correct Answer: " + q.getCorrectOption());
-        System.out.println("Created: " + q.getCreatedAt());
+        if (limit < 1) {
+            System.out.println("Error: --limit must be at least 1.");
+            return null;
+        }
+        return new int[]{page, limit};
     }
 
-public static void viewQuestionsByCategory(Scanner scanner) {
-    // Extract all unique categories
-    Set<String> categories = questions.stream()
-        .map(Question::getCategory)
-        .collect(Collectors.toSet());
+    // Shows a listing page by page from the given one, asking before each next page
+    private static void showPages(Scanner scanner, String header, List<Question> list, int page, int limit) {
+        int size = list.size();
+        int pages = (int) ((size + (long) limit - 1) / limit);
+        if (page > pages) {
+            System.out.println("Error: There " + (pages == 1 ? "is only 1 page" : "are only " + pages + " pages")
+                    + " of " + limit + " questions.");
+            return;
+        }
+        renderer.line(header);
+        while (true) {
+            int from = (page - 1) * limit;
+            renderer.questions(list, from, (int) Math.min(size, (long) from + limit));
+            if (pages > 1) {
+                renderer.line("\nPage " + page + " of " + pages + " (" + size + " questions)");
+            }
+            renderer.flush();
+            if (page == pages) {
+                return;
+            }
+            System.out.print("Show the next page? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                return;
+            }
+            page++;
+        }
+    }
 
+public static void viewQuestionsByCategory(Scanner scanner) {
     // Display all available categories
     System.out.println("Available categories:");
-    categories.forEach(System.out::println);
+    categoryIndex.categories().forEach(System.out::println);
 
     // Ask the user to input a category
-    System.out.print("Enter category: ");
-    String category = scanner.nextLine();
+    System.out.print("Enter category (optional: --page <n> --limit <n>): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    String category = options.value();
+    int[] paging = readPaging(options, Integer.MAX_VALUE);
+    if (paging == null) {
+        return;
+    }
 
-    // Filter questions by the selected category
-    List<Question> filteredQuestions = questions.stream()
-        .filter(q -> q.getCategory().equalsIgnoreCase(category))
-        .collect(Collectors.toList());
+    // Look up questions of the selected category
+    List<Question> filteredQuestions = category.trim().isEmpty()
+        ? Collections.emptyList()
+        : categoryIndex.findByCategory(category);
 
     // Display the results
     if (filteredQuestions.isEmpty()) {
         System.out.println("No questions found in category: " + category);
     } else {
-        System.out.println("\nQuestions in category " + category + ":");
-        filteredQuestions.forEach(MCQApplication::displayQuestion);
+        showPages(scanner, "\nQuestions in category " + category + ":", filteredQuestions, paging[0], paging[1]);
     }
 }
 
 
     public static void viewQuestionsByDifficulty(Scanner scanner) {
-        System.out.print("Enter difficulty level (Easy/Medium/Hard): ");
-        String difficulty = scanner.nextLine();
+        System.out.print("Enter difficulty level (Easy/Medium/Hard, optional: --page <n> --limit <n>): ");
+        CommandOptions options = CommandOptions.parse(scanner.nextLine());
+        String difficulty = options.value();
+        int[] paging = readPaging(options, Integer.MAX_VALUE);
+        if (paging == null) {
+            return;
+        }
 
-        List<Question> filteredQuestions = questions.stream()
-            .filter(q -> q.getDifficultyLevel().equalsIgnoreCase(difficulty))
-            .collect(Collectors.toList());
+        List<Question> filteredQuestions = difficulty.trim().isEmpty()
+            ? Collections.emptyList()
+            : categoryIndex.findByDifficulty(difficulty);
 
         if (filteredQuestions.isEmpty()) {
             System.out.println("No questions found for difficulty: " + difficulty);
         } else {
-            System.out.println("\nQuestions with difficulty " + difficulty + ":");
-            filteredQuestions.forEach(MCQApplication::displayQuestion);
+            showPages(scanner, "\nQuestions with difficulty " + difficulty + ":", filteredQuestions,
+                paging[0], paging[1]);
         }
     }
 
 public static void viewQuestionsByCategoryAndDifficulty(Scanner scanner) {
-    // Extract all unique categories
-    Set<String> categories = questions.stream()
-        .map(Question::getCategory)
-        .collect(Collectors.toSet());
-
-    // Extract all unique difficulty levels
-    Set<String> difficultyLevels = questions.stream()
-        .map(Question::getDifficultyLevel)
-        .collect(Collectors.toSet());
-
     // Display all available categories
     System.out.println("Available categories:");
-    categories.forEach(System.out::println);
+    categoryIndex.categories().forEach(System.out::println);
 
     // Display all available difficulty levels
     System.out.println("\nAvailable difficulty levels (Easy/Medium/Hard):");
-    difficultyLevels.forEach(System.out::println);
+    categoryIndex.difficulties().forEach(System.out::println);
 
     // Prompt for category and difficulty level
     System.out.print("Enter category: ");
     String category = scanner.nextLine();
 
-    System.out.print("Enter difficulty level (Easy/Medium/Hard): ");
-    String difficulty = scanner.nextLine();
+    System.out.print("Enter difficulty level (Easy/Medium/Hard, optional: --page <n> --limit <n>): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    String difficulty = options.value();
+    int[] paging = readPaging(options, Integer.MAX_VALUE);
+    if (paging == null) {
+        return;
+    }
 
-    // Filter questions by both category and difficulty
-    List<Question> filteredQuestions = questions.stream()
-        .filter(q -> q.getCategory().equalsIgnoreCase(category) && q.getDifficultyLevel().equalsIgnoreCase(difficulty))
-        .collect(Collectors.toList());
+    // Look up questions by both category and difficulty
+    List<Question> filteredQuestions = category.trim().isEmpty() || difficulty.trim().isEmpty()
+        ? Collections.emptyList()
+        : categoryIndex.find(category, difficulty);
 
     // Check if filtered questions list is empty
     if (filteredQuestions.isEmpty()) {
         System.out.println("No questions found in category: " + category + " with difficulty: " + difficulty);
     } else {
-        System.out.println("\nQuestions in category " + category + " with difficulty " + difficulty + ":");
-        filteredQuestions.forEach(MCQApplication::displayQuestion);
+        showPages(scanner, "\nQuestions in category " + category + " with difficulty " + difficulty + ":",
+            filteredQuestions, paging[0], paging[1]);
     }
 }
 
 public static void viewRecentQuestions() {
-    System.out.println("\nMost Recent Questions (up to 10):");
-    questions.stream()
-        .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-        .limit(10)  // Only print 10 questions
+    System.out.println("\nMost Recent Questions (up to " + RECENT_LIMIT + "):");
+    recencyIndex.recent(RECENT_LIMIT)
         .forEach(q -> System.out.println(q.getQuestion())); // Only print the question text
 }
 
+// Pages through recent questions, optionally only those created since a date
+public static void viewRecentQuestions(Scanner scanner) {
+    System.out.print("Press Enter for the " + RECENT_LIMIT + " newest questions (optional: --limit <n> --since <yyyy-MM-dd[THH:mm]>): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    int limit;
+    LocalDateTime since = null;
+    try {
+        limit = options.getInt("limit", RECENT_LIMIT);
+        String sinceText = options.get("since", "");
+        if (!sinceText.isEmpty()) {
+            since = sinceText.contains("T")
+                ? LocalDateTime.parse(sinceText)
+                : LocalDate.parse(sinceText).atStartOfDay();
+        }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+        System.out.println("Error: " + e.getMessage());
+        return;
+    }
+    if (limit < 1) {
+        System.out.println("Error: --limit must be at least 1.");
+        return;
+    }
+
+    System.out.println("\nMost Recent Questions (up to " + limit + " per page):");
+    Question cursor = null;
+    while (true) {
+        List<Question> page = recencyIndex.recent(limit, since, cursor);
+        page.forEach(q -> System.out.println(q.getCreatedAt() + "  " + q.getQuestion()));
+        if (page.size() < limit || recencyIndex.recent(1, since, page.get(page.size() - 1)).isEmpty()) {
+            return;
+        }
+        System.out.print("Show older questions? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+        cursor = page.get(page.size() - 1);
+    }
+}
+
+// Reports from the per-question answer counts
+public static void viewQuestionAnalytics(Scanner scanner) {
+    System.out.println("\nQuestion Analytics:");
+    System.out.println("1. Hardest Questions");
+    System.out.println("2. Never Answered Correctly");
+    System.out.println("3. Slowest to Answer");
+    System.out.print("Choose a report: ");
+    String report = scanner.nextLine().trim();
+    System.out.print("Press Enter for the top " + ANALYTICS_LIMIT + " (optional: --limit <n> --min-attempts <n>): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    int limit;
+    int minAttempts;
+    try {
+        limit = options.getInt("limit", ANALYTICS_LIMIT);
+        minAttempts = options.getInt("min-attempts", 1);
+    } catch (IllegalArgumentException e) {
+        System.out.println("Error: " + e.getMessage());
+        return;
+    }
+    if (limit < 1) {
+        System.out.println("Error: --limit must be at least 1.");
+        return;
+    }
+
+    // Questions deleted since they were asked are left out
+    List<QuestionAnalytics.Stats> rows;
+    switch (report) {
+        case "1" -> rows = questionAnalytics.hardest(limit, minAttempts, questions::containsId);
+        case "2" -> rows = questionAnalytics.neverCorrect(limit, minAttempts, questions::containsId);
+        case "3" -> rows = questionAnalytics.slowest(limit, minAttempts, questions::containsId);
+        default -> {
+            System.out.println("Invalid choice.");
+            return;
+        }
+    }
+    if (rows.isEmpty()) {
+        System.out.println("No questions to report yet.");
+        return;
+    }
+    System.out.println("\nCorrect  Asked  Skipped  Avg time  Question");
+    for (QuestionAnalytics.Stats row : rows) {
+        double millis = row.getMeanResponseMillis();
+        System.out.printf("%6.1f%%  %5d  %7d  %8s  %s%n", row.getCorrectRate() * 100, row.getAttempts(),
+            row.getSkipped(), millis < 0 ? "-" : String.format("%.1f s", millis / 1000),
+            questions.getById(row.getQuestionId()).getQuestion());
+    }
+}
+
+// Ranked full-text search over question text and options
+public static void searchQuestions(Scanner scanner) {
+    System.out.print("Enter words to search for (optional: --limit <n>): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    int limit;
+    try {
+        limit = options.getInt("limit", SEARCH_LIMIT);
+    } catch (IllegalArgumentException e) {
+        System.out.println("Error: " + e.getMessage());
+        return;
+    }
+    if (limit < 1) {
+        System.out.println("Error: --limit must be at least 1.");
+        return;
+    }
+    String query = options.value();
+    if (query.isEmpty()) {
+        System.out.println("Please enter at least one word to search for.");
+        return;
+    }
+
+    long start = System.nanoTime();
+    List<Question> results = searchIndex.search(query, limit);
+    double millis = (System.nanoTime() - start) / 1_000_000.0;
+    if (results.isEmpty()) {
+        System.out.printf("No questions match \"%s\" (%.1f ms).%n", query, millis);
+    } else {
+        System.out.printf("%nBest %d matches for \"%s\" (%.1f ms):%n", results.size(), query, millis);
+        renderer.questions(results, 0, results.size()).flush();
+    }
+}
+
+// Timings and counts of the instrumented operations since the application started
+public static void viewPerformance() {
+    if (!OperationMetrics.ENABLED) {
+        System.out.println("Metrics are disabled; run without -Dmcq.metrics=false to collect them.");
+        return;
+    }
+    renderer.line("\nPerformance since start:");
+    renderer.line(String.format("%-22s %7s %10s %10s %10s %10s", "Operation", "Count", "Mean", "p50", "p99", "Max"));
+    for (OperationMetrics.Timer timer : OperationMetrics.timers()) {
+        long count = timer.count();
+        renderer.line(String.format("%-22s %7d %10s %10s %10s %10s", timer.description(), count,
+            count == 0 ? "-" : formatNanos((long) timer.meanNanos()),
+            count == 0 ? "-" : formatNanos(timer.percentileNanos(0.5)),
+            count == 0 ? "-" : formatNanos(timer.percentileNanos(0.99)),
+            count == 0 ? "-" : formatNanos(timer.maxNanos())));
+    }
+    renderer.line();
+    for (OperationMetrics.Counter counter : OperationMetrics.counters()) {
+        renderer.line(counter.description() + ": " + counter.count());
+    }
+    renderer.flush();
+}
+
+private static String formatNanos(long nanos) {
+    if (nanos < 1_000) {
+        return nanos + " ns";
+    } else if (nanos < 1_000_000) {
+        return String.format("%.1f us", nanos / 1e3);
+    } else if (nanos < 1_000_000_000) {
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+    return String.format("%.2f s", nanos / 1e9);
+}
+
 
     public static void importQuestions(Scanner scanner) {
-        System.out.print("Enter file path to import questions from: ");
-        String filePath = scanner.nextLine();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            undoStack.push(new ArrayList<>(questions));
-            String line;
-            int imported = 0;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length >= 6) {
-                    String questionText = parts[0];
-                    String[] options = new String[4];
-                    System.arraycopy(parts, 1, options, 0, 4);
-                    char correctOption = parts[5].charAt(0);
-                    String category = parts.length > 6 ? parts[6] : "General";
-                    String difficulty = parts.length > 7 ? parts[7] : "Medium";
-
-                    questions.add(new Question(questionText, options, correctOption, 
-                                            category, difficulty));
-                    imported++;
-                }
+        System.out.print("Enter file path to import questions from (optional: --allow-duplicates --near-duplicates [similarity]): ");
+        CommandOptions options = CommandOptions.parse(scanner.nextLine());
+        String filePath = options.value();
+        boolean allowDuplicates = options.has("allow-duplicates");
+        double similarity = 0;
+        if (options.has("near-duplicates")) {
+            String near = options.get("near-duplicates", "");
+            try {
+                similarity = near.isEmpty() ? NEAR_DUPLICATE_SIMILARITY : Double.parseDouble(near);
+            } catch (NumberFormatException e) {
+                similarity = -1;
             }
-            logAction1("IMPORT", "Imported " + imported + " questions from " + filePath);
-            System.out.println("Successfully imported " + imported + " questions.");
+            if (similarity <= 0 || similarity > 1) {
+                System.out.println("Error: --near-duplicates expects a similarity between 0 and 1.");
+                return;
+            }
+        }
+        double nearSimilarity = similarity;
+
+        long start = OperationMetrics.start();
+        // Batches arrive in file order on this thread and go straight into the bank
+        List<Question> added = new ArrayList<>();
+        int[] duplicates = new int[1];
+        QuestionImporter.Result result = null;
+        try {
+            result = new QuestionImporter().importFile(Paths.get(filePath),
+                batch -> {
+                    if (allowDuplicates) {
+                        questions.addAll(batch);
+                        added.addAll(batch);
+                        return;
+                    }
+                    // Rows are checked one by one, so a file that repeats a row keeps only the first
+                    for (Question question : batch) {
+                        if (duplicateIndex.containsExact(question) || (nearSimilarity > 0
+                                && duplicateIndex.findSimilar(question, nearSimilarity) != null)) {
+                            duplicates[0]++;
+                        } else {
+                            questions.add(question);
+                            added.add(question);
+                        }
+                    }
+                },
+                (rows, done, total) -> {
+                    if (total > QuestionImporter.DEFAULT_CHUNK_BYTES) {
+                        System.out.println("Imported " + rows + " rows (" + (done * 100 / total) + "%)");
+                    }
+                });
         } catch (IOException e) {
             System.out.println("Error importing questions: " + e.getMessage());
+        } finally {
+            // Batches added before a failure are already in the bank and the journal, so they get undo and audit entries too
+            if (result != null || !added.isEmpty()) {
+                undoHistory.record(UndoHistory.imported(questions, added, filePath));
+                OperationMetrics.QUESTIONS_IMPORTED.add(added.size());
+                OperationMetrics.DUPLICATES_SKIPPED.add(duplicates[0]);
+                logAction("IMPORT", (result != null ? "Imported " : "Partially imported ")
+                    + added.size() + " questions from " + filePath);
+            }
+        }
+        if (result == null) {
+            if (!added.isEmpty()) {
+                System.out.println(added.size() + " questions were imported before the error. "
+                    + "Use Undo Last Operation to remove them.");
+            }
+            return;
+        }
+        OperationMetrics.IMPORT.stop(start);
+
+        System.out.println("Successfully imported " + added.size() + " questions.");
+        if (duplicates[0] > 0) {
+            System.out.println("Skipped " + duplicates[0] + " duplicate questions.");
         }
+        if (result.getRejected() > 0) {
+            System.out.println("Rejected " + result.getRejected() + " malformed rows.");
+        }
+        System.out.printf("Import took %.2f s (%.0f rows/s).%n",
+            result.getSeconds(), result.getRowsPerSecond());
     }
 
   public static void exportQuestions(Scanner scanner) {
-    System.out.print("Enter file path to export questions to: ");
-    String filePath = scanner.nextLine();
+    System.out.print("Enter file path to export questions to (optional: --category <name> --difficulty <level> --gzip): ");
+    CommandOptions options = CommandOptions.parse(scanner.nextLine());
+    String filePath = options.value();
+    String category = options.get("category", "");
+    String difficulty = options.get("difficulty", "");
+    boolean gzip = options.has("gzip") || filePath.toLowerCase().endsWith(".gz");
 
     // Debug: Print the resolved file path
     System.out.println("Exporting to: " + filePath);
@@ -681,17 +1255,15 @@ public static void viewRecentQuestions() {
         return;
     }
 
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-        for (Question q : questions) {
-            writer.write(q.getQuestion() + "|" + 
-                         String.join("|", q.getOptions()) + "|" +
-                         q.getCorrectOption() + "|" +
-                         q.getCategory() + "|" +
-                         q.getDifficultyLevel());
-            writer.newLine(); // For new line after each question
-        }
-        logAction1("EXPORT", "Exported " + questions.size() + " questions to " + filePath);
-        System.out.println("Successfully exported " + questions.size() + " questions.");
+    // A filtered export streams straight from the index buckets
+    List<Question> source = category.trim().isEmpty() && difficulty.trim().isEmpty()
+        ? questions
+        : categoryIndex.find(category, difficulty);
+
+    try {
+        long exported = new QuestionExporter().export(Paths.get(filePath), source, gzip);
+        logAction("EXPORT", "Exported " + exported + " questions to " + filePath);
+        System.out.println("Successfully exported " + exported + " questions.");
     } catch (IOException e) {
         System.out.println("Error exporting questions: " + e.getMessage());
     }
@@ -702,49 +1274,52 @@ public static void viewRecentQuestions() {
         System.out.println("\nQuestion Statistics:");
         System.out.println("Total Questions: " + questions.size());
 
-        // Category statistics
-        Map<String, Long> categoryStats = questions.stream()
-            .collect(Collectors.groupingBy(Question::getCategory, Collectors.counting()));
+        // Category statistics, maintained as the bank changes
+        Map<String, Long> categoryStats = statistics.categoryCounts();
         System.out.println("\nQuestions by Category:");
         categoryStats.forEach((category, count) -> 
             System.out.println(category + ": " + count));
 
         // Difficulty statistics
-        Map<String, Long> difficultyStats = questions.stream()
-            .collect(Collectors.groupingBy(Question::getDifficultyLevel, Collectors.counting()));
+        Map<String, Long> difficultyStats = statistics.difficultyCounts();
         System.out.println("\nQuestions by Difficulty:");
         difficultyStats.forEach((difficulty, count) -> 
             System.out.println(difficulty + ": " + count));
     }
 
     public static void undoLastOperation() {
-        if (undoStack.isEmpty()) {
+        UndoHistory.Operation operation = undoHistory.undo();
+        if (operation == null) {
             System.out.println("No operations to undo.");
             return;
         }
 
-        questions = undoStack.pop();
-        logAction("UNDO", "Undid last operation");
+        logAction("UNDO", "Undid " + operation.description());
         System.out.println("Last operation undone successfully.");
     }
 
+    public static void redoLastOperation() {
+        UndoHistory.Operation operation = undoHistory.redo();
+        if (operation == null) {
+            System.out.println("No operations to redo.");
+            return;
+        }
 
-
-    // Example of a possible logAction method:
-    private static void logAction1(String actionType, String message) {
-        // This can log actions in any preferred format (e.g., to a file, console, or log)
-        System.out.println(actionType + ": " + message);
+        logAction("REDO", "Redid " + operation.description());
+        System.out.println("Last operation redone successfully.");
     }
 
 
+
     public static void viewAuditLog() {
-        if (auditLogs.isEmpty()) {
+        List<AuditLog> entries = auditLogs.entries();
+        if (entries.isEmpty()) {
             System.out.println("No audit logs available.");
             return;
         }
 
         System.out.println("\nAudit Log:");
-        auditLogs.forEach(log -> System.out.println(
+        entries.forEach(log -> System.out.println(
             log.timestamp + " - " + log.action + ": " + log.details));
     }
 
@@ -753,29 +1328,130 @@ public static void viewRecentQuestions() {
         String confirm = scanner.nextLine();
 
         if (confirm.equalsIgnoreCase("y")) {
-            undoStack.push(new ArrayList<>(questions));
-            questions.clear();
-            quizHistory.clear();
-            logAction1("RESET", "Database reset");
+            // Hand the old bank, analytics and ratings to the undo entry instead of copying them; history is only hidden
+            List<Question> oldQuestions = questions.takeAll();
+            long oldHistoryStart = quizHistory.hideAll();
+            QuestionAnalytics.Counts oldCounts = questionAnalytics.takeAll();
+            QuestionRatings.Calibration oldCalibration = questionRatings.takeAll();
+            undoHistory.record(new UndoHistory.Operation() {
+                private QuestionAnalytics.Counts counts = oldCounts;
+                private QuestionRatings.Calibration calibration = oldCalibration;
+
+                public String description() { return "database reset"; }
+                public void undo() {
+                    questionRatings.restore(calibration);
+                    questions.addAll(oldQuestions);
+                    quizHistory.unhide(oldHistoryStart);
+                    questionAnalytics.restore(counts);
+                }
+                public void redo() {
+                    questions.takeAll();
+                    quizHistory.hideAll();
+                    counts = questionAnalytics.takeAll();
+                    calibration = questionRatings.takeAll();
+                }
+                public long weight() { return Math.max(1, oldQuestions.size()); }
+            });
+            logAction("RESET", "Database reset");
             System.out.println("Database reset successfully.");
         }
     }
 
     public static void loadData() {
+        long start = OperationMetrics.start();
+        FlightEvents.Load loading = new FlightEvents.Load();
+        loading.begin();
+        List<QuizAttempt> legacyHistory = null;
+        Path snapshot = null;
         try {
-            File dataFile = new File(DATA_FILE);
-            File auditFile = new File(AUDIT_FILE);
+            Path dataPath = Paths.get(DATA_FILE);
+            File legacyFile = new File(LEGACY_DATA_FILE);
             
-            if (dataFile.exists()) {
-                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(dataFile))) {
-                    questions = (List<Question>) ois.readObject();
-                    quizHistory = (List<QuizAttempt>) ois.readObject();
+            snapshot = BinaryQuestionStore.current(dataPath);
+            if (snapshot != null) {
+                // Older generations are not mapped yet, so they can be deleted even on Windows
+                BinaryQuestionStore.deleteStale(dataPath, snapshot);
+                // Only the file header is read; questions are decoded when first used
+                questions.attach(BinaryQuestionStore.open(snapshot));
+            } else if (legacyFile.exists()) {
+                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacyFile))) {
+                    questions.reload((List<Question>) ois.readObject());
+                    legacyHistory = (List<QuizAttempt>) ois.readObject();
                 }
             }
+        } catch (Exception e) {
+            System.out.println("Error loading data: " + e.getMessage());
+        }
+
+        // Replay changes made since the last snapshot, then journal new ones
+        if (journal == null) {
+            try {
+                journal = QuestionJournal.open(Paths.get(JOURNAL_FILE), questions);
+                questions.addListener(journal);
+            } catch (Exception e) {
+                System.out.println("Error opening journal: " + e.getMessage());
+            }
+        }
+
+        // The bank is complete, so rebuilding analytics or ratings may read it from another thread
+        List<QuizAttempt> legacy = legacyHistory;
+        if (DEFER_RECORDS) {
+            Thread loader = new Thread(() -> loadRecords(legacy), "mcq-deferred-load");
+            loader.setDaemon(true);
+            recordsLoader = loader;
+            loader.start();
+        } else {
+            loadRecords(legacy);
+        }
+        OperationMetrics.LOAD.stop(start);
+        loading.end();
+        if (loading.shouldCommit()) {
+            File legacyFile = new File(LEGACY_DATA_FILE);
+            File source = snapshot != null ? snapshot.toFile() : legacyFile.exists() ? legacyFile : null;
+            loading.source = snapshot != null ? "store" : source == legacyFile ? "legacy" : "none";
+            loading.bankSize = questions.size();
+            loading.bytes = source == null ? 0 : source.length();
+            loading.commit();
+        }
+    }
+
+    // Quiz history, question analytics and ratings, and the audit log, with migration of older files
+    private static void loadRecords(List<QuizAttempt> legacyHistory) {
+        try {
+            File historyFile = new File(HISTORY_FILE);
+            File auditFile = new File(AUDIT_FILE);
+
+            // History is read on demand; the segment directory is not even listed here
+            quizHistory.attach(Paths.get(HISTORY_DIR));
+            if (historyFile.exists()) {
+                try (ObjectInputStream ois = new ObjectInputStream(
+                        new BufferedInputStream(new FileInputStream(historyFile)))) {
+                    legacyHistory = (List<QuizAttempt>) ois.readObject();
+                }
+            }
+            if (legacyHistory != null && quizHistory.isStoreEmpty()) {
+                quizHistory.addAll(legacyHistory);
+                quizHistory.flush();
+                if (historyFile.exists()) {
+                    markMigrated(historyFile);
+                }
+            }
+
+            // Counts and ratings catch up with attempts recorded after they were last saved
+            attempts.load(Paths.get(ANALYTICS_FILE), Paths.get(RATINGS_FILE));
             
+            auditLogs.attach(Paths.get(AUDIT_DIR));
             if (auditFile.exists()) {
+                boolean migrated = false;
                 try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(auditFile))) {
-                    auditLogs = (List<AuditLog>) ois.readObject();
+                    List<AuditLog> legacyAudit = (List<AuditLog>) ois.readObject();
+                    if (auditLogs.isEmpty()) {
+                        auditLogs.restore(legacyAudit);
+                        migrated = true;
+                    }
+                }
+                if (migrated) {
+                    markMigrated(auditFile);
                 }
             }
         } catch (Exception e) {
@@ -783,25 +1459,129 @@ public static void viewRecentQuestions() {
         }
     }
 
+    // Keeps a legacy file that was copied into a newer store, renamed so it is not migrated again
+    private static void markMigrated(File legacyFile) throws IOException {
+        Path path = legacyFile.toPath();
+        Files.move(path, path.resolveSibling(path.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Waits until the records deferred by {@link #loadData} are loaded;
+     * returns at once if they were loaded up front. Anything that reads or
+     * records history, analytics, ratings or audit entries calls this
+     * first.
+     */
+    public static void awaitRecords() {
+        Thread loader = recordsLoader;
+        if (loader == null) {
+            return;
+        }
+        try {
+            loader.join();
+            recordsLoader = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public static void saveData() {
+        awaitRecords();
+        long start = OperationMetrics.start();
         try {
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-                oos.writeObject(questions);
-                oos.writeObject(quizHistory);
-            }
-            
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(AUDIT_FILE))) {
-                oos.writeObject(auditLogs);
+            writeSnapshot();
+            if (journal != null) {
+                journal.truncate();
             }
-            
+            auditLogs.flush();
+
             System.out.println("Data saved successfully.");
         } catch (IOException e) {
             System.out.println("Error saving data: " + e.getMessage());
         }
+        OperationMetrics.SAVE.stop(start);
+    }
+
+    // Writes the bank to a temporary file and swaps it in atomically; history is already on disk
+    private static void writeSnapshot() throws IOException {
+        FlightEvents.Save event = new FlightEvents.Save();
+        event.begin();
+        // A new generation: the snapshot the bank still has mapped is never replaced
+        Path dataPath = BinaryQuestionStore.writeGeneration(Paths.get(DATA_FILE), questions);
+        // Unloaded questions now come from the new file, releasing the old mapping
+        questions.rebase(BinaryQuestionStore.open(dataPath));
+        BinaryQuestionStore.deleteStale(Paths.get(DATA_FILE), dataPath);
+        attempts.save(Paths.get(ANALYTICS_FILE), Paths.get(RATINGS_FILE));
+        event.end();
+        if (event.shouldCommit()) {
+            event.bankSize = questions.size();
+            event.bytes = Files.size(dataPath);
+            event.commit();
+        }
+    }
+
+    // Warns after an edit that the journal cannot be written, so the edit is only saved by saveData
+    private static void reportJournalFailure() {
+        IOException failure = journal == null ? null : journal.failure();
+        if (failure != null) {
+            System.out.println("Error: changes are not reaching the journal (" + failure.getMessage()
+                + "); save before exiting.");
+        }
+    }
+
+    // Folds a long journal into a fresh snapshot so replay stays short
+    private static void checkpointIfNeeded() {
+        if (journal == null || !journal.needsCompaction()) {
+            return;
+        }
+        try {
+            writeSnapshot();
+            journal.truncate();
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
+        }
+    }
+
+    // Saves the bank and closes the journal and history; run once when the application exits
+    public static void shutdown() {
+        saveData();
+        closeJournal();
+        closeHistory();
+        closeAudit();
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            questions.removeListener(journal);
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    private static void closeHistory() {
+        try {
+            quizHistory.close();
+        } catch (IOException e) {
+            System.out.println("Error closing quiz history: " + e.getMessage());
+        }
+    }
+
+    private static void closeAudit() {
+        try {
+            auditLogs.close();
+        } catch (IOException e) {
+            System.out.println("Error closing audit log: " + e.getMessage());
+        }
     }
 
+    // Prints the action and queues it for the audit log; never waits for the disk
     public static void logAction(String action, String details) {
-        auditLogs.add(new AuditLog(action, details));
+        System.out.println(action + ": " + details);
+        auditLogs.record(action, details);
     }
 
     public static int getValidIntInput(Scanner scanner) {
@@ -0,0 +1,211 @@
+package com.quiz_App;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers for the operations whose cost depends on the size of
+ * the bank: loading and saving, imports, drawing quizzes and printing their
+ * summaries. The admin "Performance" screen prints them, and the REST
+ * server publishes them to Micrometer.
+ *
+ * Timers keep a count, a total, a maximum and a latency histogram with four
+ * buckets per power of two, so percentiles are within about 20% of the
+ * real value. Recording never locks or allocates.
+ *
+ * Metrics are on unless the JVM runs with {@code -Dmcq.metrics=false}; then
+ * {@link #start} returns 0 and recording does nothing.
+ */
+public final class OperationMetrics {
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("mcq.metrics"));
+
+    private static final List<Timer> timers = new ArrayList<>();
+    private static final List<Counter> counters = new ArrayList<>();
+
+    public static final Timer LOAD = timer("mcq.data.load", "Load data");
+    public static final Timer SAVE = timer("mcq.data.save", "Save data");
+    public static final Timer IMPORT = timer("mcq.questions.import", "Import questions");
+    public static final Timer QUIZ_FILTER = timer("mcq.quiz.filter", "Find quiz questions");
+    public static final Timer QUIZ_DRAW = timer("mcq.quiz.draw", "Draw quiz questions");
+    public static final Timer QUIZ_SUMMARY = timer("mcq.quiz.summary", "Show quiz summary");
+
+    public static final Counter QUESTIONS_IMPORTED = counter("mcq.questions.imported", "Questions imported");
+    public static final Counter DUPLICATES_SKIPPED = counter("mcq.questions.duplicates.skipped",
+        "Duplicates skipped on import");
+    public static final Counter QUIZZES_COMPLETED = counter("mcq.quizzes.completed", "Quizzes completed");
+
+    private OperationMetrics() {
+    }
+
+    private static Timer timer(String name, String description) {
+        Timer timer = new Timer(name, description);
+        timers.add(timer);
+        return timer;
+    }
+
+    private static Counter counter(String name, String description) {
+        Counter counter = new Counter(name, description);
+        counters.add(counter);
+        return counter;
+    }
+
+    // Start of an operation to pass to Timer.stop, or 0 when metrics are off
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static List<Timer> timers() {
+        return Collections.unmodifiableList(timers);
+    }
+
+    public static List<Counter> counters() {
+        return Collections.unmodifiableList(counters);
+    }
+
+    // Zeroes every timer and counter
+    public static void reset() {
+        timers.forEach(Timer::reset);
+        counters.forEach(Counter::reset);
+    }
+
+    public static final class Timer {
+        // Values below 4 ns have a bucket each; above, four buckets per power of two up to 2^63
+        private static final int BUCKETS = 248;
+
+        private final String name;
+        private final String description;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private Timer(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String name() { return name; }
+        public String description() { return description; }
+
+        // Records the time since start, a value returned by OperationMetrics.start()
+        public void stop(long start) {
+            if (start != 0) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        public void record(long nanos) {
+            if (!ENABLED) {
+                return;
+            }
+            nanos = Math.max(0, nanos);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucket(nanos));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public double meanNanos() {
+            long n = count();
+            return n == 0 ? 0 : (double) totalNanos() / n;
+        }
+
+        /**
+         * An upper bound of the given quantile (0 to 1) of the recorded
+         * times, never above the maximum; 0 if nothing was recorded.
+         */
+        public long percentileNanos(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxNanos());
+                }
+            }
+            return maxNanos();
+        }
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        static int bucket(long nanos) {
+            if (nanos < 4) {
+                return (int) nanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            return 4 * (exponent - 1) + (int) ((nanos >>> (exponent - 2)) & 3);
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < 4) {
+                return bucket;
+            }
+            int exponent = bucket / 4 + 1;
+            long next = (long) (4 + bucket % 4 + 1) << (exponent - 2);
+            // The last bucket ends at Long.MAX_VALUE, where next overflows
+            return next < 0 ? Long.MAX_VALUE : next - 1;
+        }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final String description;
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String name() { return name; }
+        public String description() { return description; }
+
+        public void increment() {
+            add(1);
+        }
+
+        public void add(long amount) {
+            if (ENABLED) {
+                count.add(amount);
+            }
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        private void reset() {
+            count.reset();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Per-question answer counts: how often each question was asked, answered
+ * correctly and skipped, and how long takers needed to answer it. They are
+ * updated as each attempt is recorded, so the reports never go through the
+ * quiz history.
+ *
+ * Counts are kept as columns of primitives, one slot per question that was
+ * ever asked, found through the question's {@link QuestionOrdinals}
+ * ordinal. On disk every question takes one {@value #RECORD_SIZE}-byte
+ * record of a {@link SnapshotFile}.
+ *
+ * Quizzes finish on many threads at once, so every method synchronizes on
+ * the analytics.
+ */
+public class QuestionAnalytics {
+    private static final int MAGIC = 0x4D435141; // "MCQA"
+    private static final int RECORD_SIZE = 40;
+
+    // Counts for one question, as copied out of the analytics
+    public static final class Stats {
+        private final UUID questionId;
+        private final int attempts;
+        private final int correct;
+        private final int skipped;
+        private final int timed;
+        private final long totalMillis;
+
+        Stats(UUID questionId, int attempts, int correct, int skipped, int timed, long totalMillis) {
+            this.questionId = questionId;
+            this.attempts = attempts;
+            this.correct = correct;
+            this.skipped = skipped;
+            this.timed = timed;
+            this.totalMillis = totalMillis;
+        }
+
+        public UUID getQuestionId() { return questionId; }
+        public int getAttempts() { return attempts; }
+        public int getCorrect() { return correct; }
+        public int getSkipped() { return skipped; }
+
+        public double getCorrectRate() {
+            return attempts == 0 ? 0 : (double) correct / attempts;
+        }
+
+        // Mean time to answer, or -1 if no answer to it was timed
+        public double getMeanResponseMillis() {
+            return timed == 0 ? -1 : (double) totalMillis / timed;
+        }
+    }
+
+    // Columns by slot
+    private int[] ordinals = new int[16];
+    private int[] attempts = new int[16];
+    private int[] correct = new int[16];
+    private int[] skipped = new int[16];
+    private int[] timed = new int[16];
+    private long[] totalMillis = new long[16];
+    private int size;
+    // Slot of each question ordinal, or -1
+    private int[] slotOf = new int[0];
+    // Whether anything changed since the last save or load
+    private boolean dirty;
+    // History position the counts on disk cover, or -1
+    private long savedPosition = -1;
+
+    /**
+     * Counts the answers of a finished attempt. {@code responseMillis} holds
+     * the time taken for each answer, negative for answers that were not
+     * timed (e.g. questions left open when the quiz was ended); it may be
+     * null or shorter than the attempt.
+     */
+    public synchronized void record(QuizAttempt attempt, int[] responseMillis) {
+        for (int i = 0; i < attempt.answerCount(); i++) {
+            int slot = slot(attempt.questionOrdinalAt(i));
+            attempts[slot]++;
+            if (attempt.isCorrectAt(i)) {
+                correct[slot]++;
+            }
+            if (attempt.userAnswerAt(i) == ' ') {
+                skipped[slot]++;
+            }
+            if (responseMillis != null && i < responseMillis.length && responseMillis[i] >= 0) {
+                timed[slot]++;
+                totalMillis[slot] += responseMillis[i];
+            }
+        }
+        dirty = true;
+    }
+
+    // Counts every attempt of a history that has no analytics yet; nothing is timed
+    public synchronized void rebuild(List<QuizAttempt> history) {
+        clear();
+        for (QuizAttempt attempt : history) {
+            record(attempt, null);
+        }
+    }
+
+    // Counts for one question, or null if it was never asked
+    public synchronized Stats get(UUID questionId) {
+        int ordinal = QuestionOrdinals.ordinal(questionId);
+        int slot = ordinal < slotOf.length ? slotOf[ordinal] : -1;
+        return slot < 0 ? null : stats(slot);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(slotOf, -1);
+        size = 0;
+        dirty = true;
+    }
+
+    // The columns of an emptied analytics, handed out by takeAll to be put back by restore
+    public static final class Counts {
+        private final int[] ordinals;
+        private final int[] attempts;
+        private final int[] correct;
+        private final int[] skipped;
+        private final int[] timed;
+        private final long[] totalMillis;
+        private final int size;
+        private final int[] slotOf;
+
+        private Counts(QuestionAnalytics analytics) {
+            this.ordinals = analytics.ordinals;
+            this.attempts = analytics.attempts;
+            this.correct = analytics.correct;
+            this.skipped = analytics.skipped;
+            this.timed = analytics.timed;
+            this.totalMillis = analytics.totalMillis;
+            this.size = analytics.size;
+            this.slotOf = analytics.slotOf;
+        }
+    }
+
+    /**
+     * Empties the analytics and hands the counts to the caller without
+     * copying them, for undoable operations such as a database reset.
+     */
+    public synchronized Counts takeAll() {
+        Counts taken = new Counts(this);
+        ordinals = new int[16];
+        attempts = new int[16];
+        correct = new int[16];
+        skipped = new int[16];
+        timed = new int[16];
+        totalMillis = new long[16];
+        size = 0;
+        slotOf = new int[0];
+        dirty = true;
+        return taken;
+    }
+
+    // Puts back counts taken by takeAll, adding whatever was counted since
+    public synchronized void restore(Counts taken) {
+        Counts since = new Counts(this);
+        ordinals = taken.ordinals;
+        attempts = taken.attempts;
+        correct = taken.correct;
+        skipped = taken.skipped;
+        timed = taken.timed;
+        totalMillis = taken.totalMillis;
+        size = taken.size;
+        slotOf = taken.slotOf;
+        for (int i = 0; i < since.size; i++) {
+            int slot = slot(since.ordinals[i]);
+            attempts[slot] += since.attempts[i];
+            correct[slot] += since.correct[i];
+            skipped[slot] += since.skipped[i];
+            timed[slot] += since.timed[i];
+            totalMillis[slot] += since.totalMillis[i];
+        }
+        dirty = true;
+    }
+
+    /**
+     * The questions answered correctly least often, hardest first, at most
+     * {@code limit} of them. Rates are smoothed as (correct + 1) / (asked + 2),
+     * so a question missed once does not outrank one missed a hundred times.
+     * Only questions asked at least {@code minAttempts} times and accepted
+     * by {@code include} are considered.
+     */
+    public synchronized List<Stats> hardest(int limit, int minAttempts, Predicate<UUID> include) {
+        return top(limit, minAttempts, include, slot -> true, Comparator
+            .comparingDouble((Integer slot) -> (correct[slot] + 1.0) / (attempts[slot] + 2.0))
+            .thenComparingInt(slot -> -attempts[slot]));
+    }
+
+    // Questions asked at least minAttempts times and never answered correctly, most asked first
+    public synchronized List<Stats> neverCorrect(int limit, int minAttempts, Predicate<UUID> include) {
+        return top(limit, minAttempts, include, slot -> correct[slot] == 0,
+            Comparator.comparingInt((Integer slot) -> -attempts[slot]));
+    }
+
+    // Questions with the longest mean time to answer, slowest first
+    public synchronized List<Stats> slowest(int limit, int minAttempts, Predicate<UUID> include) {
+        return top(limit, minAttempts, include, slot -> timed[slot] > 0, Comparator
+            .comparingDouble((Integer slot) -> -(double) totalMillis[slot] / timed[slot]));
+    }
+
+    // The first limit slots in order, keeping only the best in a bounded heap
+    private List<Stats> top(int limit, int minAttempts, Predicate<UUID> include,
+                            IntPredicate filter, Comparator<Integer> order) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        // Ties keep the order questions were first asked in
+        Comparator<Integer> ranking = order.thenComparingInt(slot -> slot);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, limit + 1), ranking.reversed());
+        for (int slot = 0; slot < size && limit > 0; slot++) {
+            if (attempts[slot] < minAttempts || !filter.test(slot)
+                    || (best.size() == limit && ranking.compare(slot, best.peek()) >= 0)
+                    || !include.test(QuestionOrdinals.id(ordinals[slot]))) {
+                continue;
+            }
+            best.add(slot);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Integer> slots = new ArrayList<>(best);
+        slots.sort(ranking);
+        List<Stats> result = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            result.add(stats(slot));
+        }
+        return result;
+    }
+
+    private Stats stats(int slot) {
+        return new Stats(QuestionOrdinals.id(ordinals[slot]), attempts[slot], correct[slot], skipped[slot],
+            timed[slot], totalMillis[slot]);
+    }
+
+    private int slot(int ordinal) {
+        if (ordinal >= slotOf.length) {
+            int previous = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(ordinal + 1, previous * 2));
+            Arrays.fill(slotOf, previous, slotOf.length, -1);
+        }
+        int slot = slotOf[ordinal];
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = size++;
+        if (slot == ordinals.length) {
+            int capacity = slot * 2;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            attempts = Arrays.copyOf(attempts, capacity);
+            correct = Arrays.copyOf(correct, capacity);
+            skipped = Arrays.copyOf(skipped, capacity);
+            timed = Arrays.copyOf(timed, capacity);
+            totalMillis = Arrays.copyOf(totalMillis, capacity);
+        }
+        ordinals[slot] = ordinal;
+        attempts[slot] = 0;
+        correct[slot] = 0;
+        skipped[slot] = 0;
+        timed[slot] = 0;
+        totalMillis[slot] = 0;
+        slotOf[ordinal] = slot;
+        return slot;
+    }
+
+    /**
+     * Writes the counts, covering the quiz history up to {@code position}, as
+     * a {@link SnapshotFile}; does nothing if nothing changed.
+     */
+    public synchronized void save(Path path, long position) throws IOException {
+        if (!dirty && position == savedPosition && Files.exists(path)) {
+            return;
+        }
+        SnapshotFile.write(path, MAGIC, size, RECORD_SIZE, position, out -> {
+            for (int slot = 0; slot < size; slot++) {
+                UUID id = QuestionOrdinals.id(ordinals[slot]);
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+                out.writeInt(attempts[slot]);
+                out.writeInt(correct[slot]);
+                out.writeInt(skipped[slot]);
+                out.writeInt(timed[slot]);
+                out.writeLong(totalMillis[slot]);
+            }
+        });
+        dirty = false;
+        savedPosition = position;
+    }
+
+    // Replaces the counts with those saved at path, then counts the attempts of history recorded since
+    public synchronized void load(Path path, QuizHistory history) throws IOException {
+        clear();
+        long position = SnapshotFile.read(path, MAGIC, "question analytics", RECORD_SIZE, in -> {
+            int slot = slot(QuestionOrdinals.ordinal(new UUID(in.readLong(), in.readLong())));
+            attempts[slot] = in.readInt();
+            correct[slot] = in.readInt();
+            skipped[slot] = in.readInt();
+            timed[slot] = in.readInt();
+            totalMillis[slot] = in.readLong();
+        });
+        dirty = false;
+        savedPosition = position;
+        List<QuizAttempt> unrecorded = SnapshotFile.unrecorded(history, position);
+        if (unrecorded == null) {
+            rebuild(history);
+            return;
+        }
+        for (QuizAttempt attempt : unrecorded) {
+            record(attempt, null);
+        }
+    }
+}
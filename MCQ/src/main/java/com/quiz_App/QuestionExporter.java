@@ -0,0 +1,131 @@
+package com.quiz_App;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Streams questions to a pipe-delimited file in the import format.
+ *
+ * Rows are UTF-8 encoded straight into one reusable buffer, which is
+ * written to a file channel (or through gzip) whenever it fills up, so an
+ * export allocates nothing per row. The source is read in place: pass the
+ * bank or an index view to export a subset without building a list first.
+ */
+public class QuestionExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Room for the longest UTF-8 sequence of one char, so encoding never overruns
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Writes every question of {@code source} to {@code path}, gzip
+     * compressed if asked, and returns the number of rows written.
+     */
+    public long export(Path path, List<Question> source, boolean gzip) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (gzip) {
+                try (OutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+                    return write(source, () -> {
+                        out.write(buffer.array(), 0, buffer.position());
+                        buffer.clear();
+                    });
+                }
+            }
+            return write(source, () -> {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            });
+        }
+    }
+
+    // Writes out the buffered bytes and empties the buffer
+    private interface Drain {
+        void drain() throws IOException;
+    }
+
+    private long write(List<Question> source, Drain drain) throws IOException {
+        buffer.clear();
+        QuestionRepository repository = source instanceof QuestionRepository bank ? bank : null;
+        int size = source.size();
+        for (int i = 0; i < size; i++) {
+            // Read unloaded questions without keeping them on the heap
+            Question q = repository != null ? repository.peek(i) : source.get(i);
+            put(q.getQuestion(), drain);
+            for (String option : q.getOptions()) {
+                putByte('|', drain);
+                put(option, drain);
+            }
+            putByte('|', drain);
+            putChar(q.getCorrectOption(), drain);
+            putByte('|', drain);
+            put(q.getCategory(), drain);
+            putByte('|', drain);
+            put(q.getDifficultyLevel(), drain);
+            for (byte b : newline) {
+                putByte(b, drain);
+            }
+        }
+        drain.drain();
+        return size;
+    }
+
+    private void put(String value, Drain drain) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                putCodePoint(Character.toCodePoint(c, value.charAt(++i)), drain);
+            } else {
+                putChar(c, drain);
+            }
+        }
+    }
+
+    private void putChar(char c, Drain drain) throws IOException {
+        // Unpaired surrogates become '?', as String.getBytes would do
+        putCodePoint(Character.isSurrogate(c) ? '?' : c, drain);
+    }
+
+    private void putCodePoint(int cp, Drain drain) throws IOException {
+        if (buffer.remaining() < MAX_CHAR_BYTES) {
+            drain.drain();
+        }
+        if (cp < 0x80) {
+            buffer.put((byte) cp);
+        } else if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | (cp >> 6)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            buffer.put((byte) (0xE0 | (cp >> 12)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+    private void putByte(int b, Drain drain) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain.drain();
+        }
+        buffer.put((byte) b);
+    }
+}
@@ -0,0 +1,269 @@
+package com.quiz_App;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Imports pipe-delimited question files using every core.
+ *
+ * The file is cut into byte ranges that end on line breaks; each range is
+ * mapped and parsed on its own thread without regular expressions. Parsed
+ * batches are handed to the caller's thread in file order, so the bank
+ * itself is only ever touched by one thread.
+ *
+ * Row format (same as export): question|A|B|C|D|correct[|category[|difficulty]]
+ */
+public class QuestionImporter {
+    public static final long DEFAULT_CHUNK_BYTES = 8L << 20;
+    private static final int MIN_FIELDS = 6;
+    private static final int MAX_FIELDS = 8;
+
+    // Receives progress after each batch is inserted
+    public interface ProgressListener {
+        void progress(long rows, long bytesDone, long bytesTotal);
+    }
+
+    // Outcome of one import
+    public static class Result {
+        private final long imported;
+        private final long rejected;
+        private final long bytes;
+        private final long nanos;
+
+        Result(long imported, long rejected, long bytes, long nanos) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getBytes() { return bytes; }
+        public double getSeconds() { return nanos / 1e9; }
+
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : (imported + rejected) * 1e9 / nanos;
+        }
+    }
+
+    private final int threads;
+    private final long chunkBytes;
+
+    public QuestionImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public QuestionImporter(int threads, long chunkBytes) {
+        if (threads < 1 || chunkBytes < 1) {
+            throw new IllegalArgumentException("threads and chunkBytes must be positive");
+        }
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Parses the file and passes each batch of questions to {@code sink} on
+     * the calling thread, in file order. All questions of one import share
+     * the same creation time.
+     */
+    public Result importFile(Path path, Consumer<List<Question>> sink, ProgressListener progress)
+            throws IOException {
+        long start = System.nanoTime();
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = splitOnLines(channel, size);
+            int chunks = bounds.length - 1;
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, chunks)), r -> {
+                Thread thread = new Thread(r, "mcq-import");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Batch>> batches = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                    boolean first = i == 0;
+                    batches.add(pool.submit(() -> parse(region, createdAt, first)));
+                }
+
+                long imported = 0;
+                long rejected = 0;
+                for (int i = 0; i < chunks; i++) {
+                    // Covers waiting for the chunk to be parsed and adding it to the bank
+                    FlightEvents.ImportBatch event = new FlightEvents.ImportBatch();
+                    event.begin();
+                    Batch batch = await(batches.get(i));
+                    sink.accept(batch.questions);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.path = path.toString();
+                        event.batch = i;
+                        event.rows = batch.questions.size();
+                        event.rejected = batch.rejected;
+                        event.bytes = bounds[i + 1] - bounds[i];
+                        event.commit();
+                    }
+                    imported += batch.questions.size();
+                    rejected += batch.rejected;
+                    if (progress != null) {
+                        progress.progress(imported, bounds[i + 1], size);
+                    }
+                }
+                return new Result(imported, rejected, size, System.nanoTime() - start);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    // Chunk boundaries, each one just after a line break
+    private long[] splitOnLines(FileChannel channel, long size) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long target = chunkBytes;
+        while (target < size) {
+            long next = -1;
+            long position = target;
+            while (next < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        next = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (next < 0 || next >= size) {
+                break;
+            }
+            bounds.add(next);
+            target = next + chunkBytes;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static Batch await(Future<Batch> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Questions parsed from one chunk and the number of rows that were not valid questions
+    private static class Batch {
+        private final List<Question> questions;
+        private final long rejected;
+
+        Batch(List<Question> questions, long rejected) {
+            this.questions = questions;
+            this.rejected = rejected;
+        }
+    }
+
+    private static Batch parse(MappedByteBuffer region, LocalDateTime createdAt, boolean first) {
+        byte[] bytes = new byte[region.remaining()];
+        region.get(bytes);
+
+        List<Question> questions = new ArrayList<>(Math.max(16, bytes.length / 128));
+        long rejected = 0;
+        int[] fieldStart = new int[MAX_FIELDS + 1];
+        int[] fieldEnd = new int[MAX_FIELDS + 1];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int lineStart = 0;
+        // Skip a UTF-8 byte order mark at the start of the file
+        if (first && bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            lineStart = 3;
+        }
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd == lineStart) {
+                // Blank lines, such as the empty last line of many files, are not rows
+                lineStart = next;
+                continue;
+            }
+
+            // Split on '|'; it never occurs inside a multi-byte UTF-8 sequence
+            int fields = 0;
+            int from = lineStart;
+            for (int i = lineStart; i <= lineEnd && fields <= MAX_FIELDS; i++) {
+                if (i == lineEnd || bytes[i] == '|') {
+                    fieldStart[fields] = from;
+                    fieldEnd[fields] = i;
+                    fields++;
+                    from = i + 1;
+                }
+            }
+            // Like String.split, trailing empty fields do not count
+            while (fields > 0 && fieldEnd[fields - 1] == fieldStart[fields - 1]) {
+                fields--;
+            }
+
+            if (fields < MIN_FIELDS || fieldEnd[5] == fieldStart[5]) {
+                rejected++;
+            } else {
+                String[] options = new String[4];
+                for (int o = 0; o < 4; o++) {
+                    options[o] = text(bytes, fieldStart[o + 1], fieldEnd[o + 1]);
+                }
+                char correctOption = text(bytes, fieldStart[5], fieldEnd[5]).charAt(0);
+                String category = fields > 6 ? text(bytes, fieldStart[6], fieldEnd[6]) : "General";
+                String difficulty = fields > 7 ? text(bytes, fieldStart[7], fieldEnd[7]) : "Medium";
+                questions.add(new Question(randomId(random), text(bytes, fieldStart[0], fieldEnd[0]),
+                                           options, correctOption, category, difficulty, createdAt));
+            }
+            lineStart = next;
+        }
+        return new Batch(questions, rejected);
+    }
+
+    private static String text(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // Version 4 UUID without the shared SecureRandom that UUID.randomUUID() contends on
+    private static UUID randomId(ThreadLocalRandom random) {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
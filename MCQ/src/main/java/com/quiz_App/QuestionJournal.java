@@ -0,0 +1,368 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Append-only write-ahead journal of question bank changes.
+ *
+ * Every add, edit, delete and wipe of the bank is appended as one small
+ * record. Records are collected in memory and a background committer writes
+ * and fsyncs them in groups every few milliseconds, so editing never waits
+ * for the disk. On startup the journal is replayed on top of the last
+ * snapshot; once it grows past a threshold the application writes a fresh
+ * snapshot and truncates it (see {@link #needsCompaction()}).
+ *
+ * Record layout: payload length (int), CRC32 of the payload (int), payload.
+ * A torn record at the end of the file is detected by its CRC and dropped.
+ *
+ * A batch that cannot be written is put back and retried with the next
+ * one. The error is kept until a write succeeds: {@link #sync()} throws
+ * it and {@link #failure()} reports it, so edits are not taken as saved
+ * while nothing reaches the disk.
+ */
+public class QuestionJournal implements QuestionRepository.Listener, Closeable {
+    private static final int MAGIC = 0x4D43514A; // "MCQJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    public static final long DEFAULT_COMMIT_MILLIS = 10;
+    public static final long DEFAULT_COMPACT_AFTER = 10_000;
+
+    private final FileChannel channel;
+    private final long commitMillis;
+    private final long compactAfter;
+    private final Object bufferLock = new Object();
+    private final Object writeLock = new Object();
+    private final Thread committer;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long records;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private QuestionJournal(FileChannel channel, long records) {
+        this.channel = channel;
+        this.records = records;
+        this.commitMillis = Long.getLong("mcq.journal.commitMillis", DEFAULT_COMMIT_MILLIS);
+        this.compactAfter = Long.getLong("mcq.journal.compactAfter", DEFAULT_COMPACT_AFTER);
+        this.committer = new Thread(this::commitLoop, "mcq-journal-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Replays the journal at the given path into the repository and opens it
+     * for appending. The caller attaches the returned journal as a listener
+     * once loading is finished, so the replay itself is not journaled again.
+     */
+    public static QuestionJournal open(Path path, QuestionRepository repository) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long records = 0;
+            long validEnd;
+            if (channel.size() < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                validEnd = HEADER_SIZE;
+            } else {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(0)), 1 << 16));
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a question journal: " + path);
+                }
+                validEnd = HEADER_SIZE;
+                long size = channel.size();
+                CRC32 crc = new CRC32();
+                while (validEnd + 8 <= size) {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length <= 0 || validEnd + 8 + length > size) {
+                        break;
+                    }
+                    byte[] payload = in.readNBytes(length);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                    apply(payload, repository);
+                    validEnd += 8 + length;
+                    records++;
+                }
+            }
+            // Drop a torn tail so new records follow the last good one
+            channel.truncate(validEnd);
+            channel.position(validEnd);
+            return new QuestionJournal(channel, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void questionAdded(Question question) {
+        append(encodePut(question));
+    }
+
+    @Override
+    public void questionRemoved(Question question) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(17);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(REMOVE);
+            writeUuid(out, question.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    @Override
+    public void cleared() {
+        append(new byte[]{CLEAR});
+    }
+
+    // Edits are journaled as a single upsert once they are complete
+    @Override
+    public void beforeUpdate(Question question) {
+    }
+
+    @Override
+    public void afterUpdate(Question question) {
+        append(encodePut(question));
+    }
+
+    public boolean needsCompaction() {
+        synchronized (bufferLock) {
+            return records >= compactAfter;
+        }
+    }
+
+    public long records() {
+        synchronized (bufferLock) {
+            return records;
+        }
+    }
+
+    // The error of the last write if nothing has been written since, or null
+    public IOException failure() {
+        return failure;
+    }
+
+    /**
+     * Writes and fsyncs everything appended so far. If that fails the
+     * records stay pending and the error is thrown, and kept for
+     * {@link #failure()}, until a later write succeeds.
+     */
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            byte[] batch;
+            synchronized (bufferLock) {
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream(Math.max(256, batch.length));
+            }
+            long start = -1;
+            try {
+                start = channel.position();
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                requeue(batch, start);
+                failure = e;
+                throw e;
+            }
+            failure = null;
+        }
+    }
+
+    // Puts a batch that failed back in front of newer records, to be written again from start if known
+    private void requeue(byte[] batch, long start) {
+        synchronized (bufferLock) {
+            ByteArrayOutputStream restored = new ByteArrayOutputStream(batch.length + pending.size());
+            restored.write(batch, 0, batch.length);
+            restored.write(pending.toByteArray(), 0, pending.size());
+            pending = restored;
+        }
+        try {
+            if (start >= 0) {
+                channel.position(start);
+            }
+        } catch (IOException e) {
+            // The channel is closed; every later write fails with the same error
+        }
+    }
+
+    // Empties the journal after the caller has written a snapshot containing all of it
+    public void truncate() throws IOException {
+        synchronized (writeLock) {
+            synchronized (bufferLock) {
+                pending.reset();
+                records = 0;
+            }
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            channel.force(true);
+            // The snapshot holds whatever could not be written
+            failure = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Not interrupted: an interrupt during a write would close the channel
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void append(byte[] payload) {
+        if (closed) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        synchronized (bufferLock) {
+            writeInt(pending, payload.length);
+            writeInt(pending, (int) crc.getValue());
+            pending.write(payload, 0, payload.length);
+            records++;
+        }
+    }
+
+    private void commitLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(commitMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            boolean failing = failure != null;
+            try {
+                sync();
+            } catch (IOException e) {
+                // Printed when writes start failing; failure() keeps it for the application
+                if (!failing) {
+                    System.out.println("Error writing journal: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static byte[] encodePut(Question q) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(PUT);
+            writeUuid(out, q.getId());
+            writeString(out, q.getCreatedAt().toString());
+            writeString(out, q.getQuestion());
+            out.writeByte(q.getOptions().length);
+            for (String option : q.getOptions()) {
+                writeString(out, option);
+            }
+            out.writeChar(q.getCorrectOption());
+            writeString(out, q.getCategory());
+            writeString(out, q.getDifficultyLevel());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void apply(byte[] payload, QuestionRepository repository) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case PUT -> {
+                UUID id = readUuid(in);
+                LocalDateTime createdAt = LocalDateTime.parse(readString(in));
+                String text = readString(in);
+                String[] options = new String[in.readUnsignedByte()];
+                for (int i = 0; i < options.length; i++) {
+                    options[i] = readString(in);
+                }
+                char correctOption = in.readChar();
+                String category = readString(in);
+                String difficulty = readString(in);
+
+                Question existing = repository.getById(id);
+                if (existing == null) {
+                    repository.add(new Question(id, text, options, correctOption,
+                                                category, difficulty, createdAt));
+                } else {
+                    repository.update(existing, q -> {
+                        q.setQuestion(text);
+                        q.setOptions(options);
+                        q.setCorrectOption(correctOption);
+                        q.setCategory(category);
+                        q.setDifficultyLevel(difficulty);
+                    });
+                }
+            }
+            case REMOVE -> repository.removeById(readUuid(in));
+            case CLEAR -> repository.takeAll();
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    // Length-prefixed UTF-8; unlike writeUTF this has no 64K limit
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
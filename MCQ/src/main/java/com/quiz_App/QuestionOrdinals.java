@@ -0,0 +1,58 @@
+package com.quiz_App;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers question ids, so quiz attempts can store an int per answer
+ * instead of a reference to a {@link UUID}.
+ *
+ * Every id seen gets the next ordinal and keeps it for the life of the
+ * process; ordinals are never written to disk. The ids are kept in chunks
+ * of a fixed size, so adding one never copies the others, and each id is
+ * held once however many answers refer to it.
+ */
+public final class QuestionOrdinals {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final Map<UUID, Integer> ordinals = new ConcurrentHashMap<>();
+    // Id of each ordinal; the outer array is replaced when it grows
+    private static volatile UUID[][] chunks = new UUID[16][];
+    private static int count;
+
+    private QuestionOrdinals() {
+    }
+
+    // The ordinal of an id, numbering it if it is new
+    public static int ordinal(UUID id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? ordinal : add(id);
+    }
+
+    private static synchronized int add(UUID id) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = count;
+        int chunk = ordinal >>> CHUNK_BITS;
+        UUID[][] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new UUID[CHUNK_SIZE];
+        }
+        current[chunk][ordinal & (CHUNK_SIZE - 1)] = id;
+        chunks = current;
+        count++;
+        // Published last: whoever reads the ordinal from the map also sees the id
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    public static UUID id(int ordinal) {
+        return chunks[ordinal >>> CHUNK_BITS][ordinal & (CHUNK_SIZE - 1)];
+    }
+}
@@ -0,0 +1,433 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Elo ratings of questions, and the questions of the bank ordered by them
+ * for adaptive quizzes.
+ *
+ * Every answer is a game between the taker and the question: the taker's
+ * ability and the question's rating give the expected chance of a correct
+ * answer, and both move by the surprise. A taker starts each quiz at
+ * {@value #START_ABILITY}; a question nobody has answered yet starts from
+ * the level its author gave it. Ratings are updated as each attempt is
+ * recorded, so calibration never goes back over the history. A question's
+ * rating moves less the more answers it is based on; skipped questions
+ * are left out.
+ *
+ * The questions of the bank are kept in trees ordered by rating, one over
+ * the whole bank and one per category, kept up to date by
+ * {@link QuestionRepository}. Picking the next question walks outwards
+ * from the taker's ability, so it costs O(log n) however large the bank is.
+ *
+ * After the bank is opened from a store the trees are rebuilt, from the
+ * store's ids and labels, on the first use or before concurrent readers
+ * run. Calibrated ratings are saved as the records of a
+ * {@link SnapshotFile}. All public methods are synchronized, since
+ * attempts are recorded from any thread.
+ */
+public class QuestionRatings implements QuestionRepository.Listener {
+    public static final int START_ABILITY = 1500;
+    private static final float EASY_RATING = 1300;
+    private static final float MEDIUM_RATING = 1500;
+    private static final float HARD_RATING = 1700;
+    private static final int EASY = LabelDictionary.DIFFICULTIES.keyOf("Easy");
+    private static final int HARD = LabelDictionary.DIFFICULTIES.keyOf("Hard");
+    // Questions this close to the taker's ability are drawn from at random
+    private static final int NEAREST = 5;
+
+    private static final int MAGIC = 0x4D435152; // "MCQR"
+    private static final int RECORD_SIZE = 24;
+
+    // A question of the bank at its current rating
+    private static final class Entry {
+        private float rating;
+        // Rating from the author's level, used until the question is answered
+        private final float start;
+        private final int ordinal;
+        private final int category;
+        private int copies = 1;
+
+        Entry(float rating, float start, int ordinal, int category) {
+            this.rating = rating;
+            this.start = start;
+            this.ordinal = ordinal;
+            this.category = category;
+        }
+    }
+
+    private static final Comparator<Entry> BY_RATING =
+        Comparator.comparingDouble((Entry entry) -> entry.rating).thenComparingInt(entry -> entry.ordinal);
+
+    private final QuestionRepository repository;
+    private final Random random;
+    // Rating and number of answers behind it, by question ordinal; no answers means not calibrated
+    private float[] ratings = new float[0];
+    private int[] answers = new int[0];
+    // Questions of the bank by rating, overall and by category key
+    private final TreeSet<Entry> all = new TreeSet<>(BY_RATING);
+    private final Map<Integer, TreeSet<Entry>> byCategory = new HashMap<>();
+    private Entry[] entries = new Entry[0];
+    // Whether the trees must be rebuilt from the bank before the next use
+    private boolean stale;
+    // Whether anything changed since the last save or load
+    private boolean dirty;
+    // History position the ratings on disk cover, or -1
+    private long savedPosition = -1;
+
+    public QuestionRatings(QuestionRepository repository) {
+        this(repository, seeded(Long.getLong("mcq.quiz.seed")));
+    }
+
+    public QuestionRatings(QuestionRepository repository, Random random) {
+        this.repository = repository;
+        this.random = random;
+    }
+
+    private static Random seeded(Long seed) {
+        return seed == null ? new Random() : new Random(seed);
+    }
+
+    // Chance that a taker of this ability answers a question of this rating correctly
+    public static double expected(double ability, double rating) {
+        return 1 / (1 + Math.pow(10, (rating - ability) / 400));
+    }
+
+    // A taker's ability after one more answer; early answers move it most so it settles quickly
+    public static double nextAbility(double ability, int answered, double rating, boolean correct) {
+        double k = Math.max(32, 200.0 / (answered + 1));
+        return ability + k * ((correct ? 1 : 0) - expected(ability, rating));
+    }
+
+    // How far one answer moves a question that n answers were counted for
+    private static double questionFactor(int n) {
+        return Math.max(8, 64 / Math.sqrt(n + 1));
+    }
+
+    private static float startingRating(int difficulty) {
+        int key = LabelDictionary.DIFFICULTIES.key(difficulty);
+        return key == EASY ? EASY_RATING : key == HARD ? HARD_RATING : MEDIUM_RATING;
+    }
+
+    @Override
+    public synchronized void questionAdded(Question question) {
+        if (!stale) {
+            insert(QuestionOrdinals.ordinal(question.getId()), question.categoryCode(), question.difficultyCode());
+        }
+    }
+
+    @Override
+    public synchronized void questionRemoved(Question question) {
+        if (stale) {
+            return;
+        }
+        int ordinal = QuestionOrdinals.ordinal(question.getId());
+        Entry entry = ordinal < entries.length ? entries[ordinal] : null;
+        if (entry != null && --entry.copies == 0) {
+            untree(entry);
+            entries[ordinal] = null;
+        }
+    }
+
+    @Override
+    public synchronized void cleared() {
+        all.clear();
+        byCategory.clear();
+        entries = new Entry[0];
+        stale = false;
+    }
+
+    @Override
+    public synchronized void reloaded(QuestionRepository repository) {
+        cleared();
+        stale = true;
+    }
+
+    @Override
+    public synchronized void prepare() {
+        ensureCurrent();
+    }
+
+    private void ensureCurrent() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+        repository.forEachLabelled((id, category, difficulty) ->
+            insert(QuestionOrdinals.ordinal(id), category, difficulty));
+    }
+
+    private void insert(int ordinal, int category, int difficulty) {
+        if (ordinal >= entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(ordinal + 1, entries.length * 2));
+        }
+        Entry entry = entries[ordinal];
+        if (entry != null) {
+            entry.copies++;
+            return;
+        }
+        float start = startingRating(difficulty);
+        float rating = ordinal < answers.length && answers[ordinal] > 0 ? ratings[ordinal] : start;
+        entry = new Entry(rating, start, ordinal, LabelDictionary.CATEGORIES.key(category));
+        entries[ordinal] = entry;
+        tree(entry);
+    }
+
+    private void tree(Entry entry) {
+        all.add(entry);
+        byCategory.computeIfAbsent(entry.category, key -> new TreeSet<>(BY_RATING)).add(entry);
+    }
+
+    private void retree(Entry entry, float rating) {
+        untree(entry);
+        entry.rating = rating;
+        tree(entry);
+    }
+
+    private void untree(Entry entry) {
+        all.remove(entry);
+        TreeSet<Entry> category = byCategory.get(entry.category);
+        category.remove(entry);
+        if (category.isEmpty()) {
+            byCategory.remove(entry.category);
+        }
+    }
+
+    // Current rating of a question; questions neither answered nor in the bank rate as Medium
+    public synchronized double ratingOf(UUID questionId) {
+        ensureCurrent();
+        return rating(QuestionOrdinals.ordinal(questionId));
+    }
+
+    private float rating(int ordinal) {
+        if (ordinal < answers.length && answers[ordinal] > 0) {
+            return ratings[ordinal];
+        }
+        Entry entry = ordinal < entries.length ? entries[ordinal] : null;
+        return entry != null ? entry.rating : MEDIUM_RATING;
+    }
+
+    /**
+     * Replays a finished attempt from the starting ability and moves the
+     * rating of every question it answered.
+     */
+    public synchronized void record(QuizAttempt attempt) {
+        ensureCurrent();
+        double ability = START_ABILITY;
+        int answered = 0;
+        for (int i = 0; i < attempt.answerCount(); i++) {
+            if (attempt.userAnswerAt(i) == ' ') {
+                continue;
+            }
+            int ordinal = attempt.questionOrdinalAt(i);
+            boolean correct = attempt.isCorrectAt(i);
+            double rating = rating(ordinal);
+            double surprise = (correct ? 1 : 0) - expected(ability, rating);
+            int n = ordinal < answers.length ? answers[ordinal] : 0;
+            calibrate(ordinal, (float) (rating - questionFactor(n) * surprise));
+            ability = nextAbility(ability, answered++, rating, correct);
+        }
+    }
+
+    private void calibrate(int ordinal, float rating) {
+        if (ordinal >= answers.length) {
+            int capacity = Math.max(ordinal + 1, answers.length * 2);
+            ratings = Arrays.copyOf(ratings, capacity);
+            answers = Arrays.copyOf(answers, capacity);
+        }
+        ratings[ordinal] = rating;
+        answers[ordinal]++;
+        Entry entry = ordinal < entries.length ? entries[ordinal] : null;
+        if (entry != null) {
+            retree(entry, rating);
+        }
+        dirty = true;
+    }
+
+    // Forgets all calibration and replays a history, oldest attempt first
+    public synchronized void rebuild(List<QuizAttempt> history) {
+        uncalibrate();
+        for (QuizAttempt attempt : history) {
+            record(attempt);
+        }
+        dirty = true;
+    }
+
+    // Drops every calibrated rating, putting the questions of the bank back at their authors' levels
+    private void uncalibrate() {
+        Arrays.fill(answers, 0);
+        for (Entry entry : entries) {
+            if (entry != null && entry.rating != entry.start) {
+                retree(entry, entry.start);
+            }
+        }
+    }
+
+    // The calibration of emptied ratings, handed out by takeAll to be put back by restore
+    public static final class Calibration {
+        private final float[] ratings;
+        private final int[] answers;
+
+        private Calibration(float[] ratings, int[] answers) {
+            this.ratings = ratings;
+            this.answers = answers;
+        }
+    }
+
+    /**
+     * Forgets every calibrated rating and hands them to the caller without
+     * copying them, for undoable operations such as a database reset.
+     */
+    public synchronized Calibration takeAll() {
+        Calibration taken = new Calibration(ratings, answers);
+        ratings = new float[0];
+        answers = new int[0];
+        for (Entry entry : entries) {
+            if (entry != null && entry.rating != entry.start) {
+                retree(entry, entry.start);
+            }
+        }
+        dirty = true;
+        return taken;
+    }
+
+    // Puts back ratings taken by takeAll; questions answered since keep their newer rating
+    public synchronized void restore(Calibration taken) {
+        float[] sinceRatings = ratings;
+        int[] sinceAnswers = answers;
+        ratings = taken.ratings;
+        answers = taken.answers;
+        for (int ordinal = 0; ordinal < sinceAnswers.length; ordinal++) {
+            if (sinceAnswers[ordinal] > 0) {
+                int previous = ordinal < answers.length ? answers[ordinal] : 0;
+                calibrate(ordinal, sinceRatings[ordinal]);
+                answers[ordinal] = previous + sinceAnswers[ordinal];
+            }
+        }
+        for (Entry entry : entries) {
+            if (entry != null && entry.rating != rating(entry.ordinal)) {
+                retree(entry, rating(entry.ordinal));
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * A question of the bank for a taker of the given ability, in the given
+     * category (empty for any), that is not in {@code asked}: one of the
+     * {@value #NEAREST} whose ratings are closest to the ability, at random.
+     * Null if every such question was asked.
+     */
+    public Question next(double ability, String category, Set<UUID> asked) {
+        int ordinal;
+        synchronized (this) {
+            ensureCurrent();
+            TreeSet<Entry> tree;
+            if (CategoryIndex.normalize(category).isEmpty()) {
+                tree = all;
+            } else {
+                tree = byCategory.get(LabelDictionary.CATEGORIES.keyOf(category));
+                if (tree == null) {
+                    return null;
+                }
+            }
+            Entry probe = new Entry((float) ability, 0, Integer.MIN_VALUE, 0);
+            Iterator<Entry> up = tree.tailSet(probe, true).iterator();
+            Iterator<Entry> down = tree.headSet(probe, false).descendingIterator();
+            Entry above = advance(up, asked);
+            Entry below = advance(down, asked);
+            List<Entry> nearest = new ArrayList<>(NEAREST);
+            while (nearest.size() < NEAREST && (above != null || below != null)) {
+                if (below == null || (above != null && above.rating - ability <= ability - below.rating)) {
+                    nearest.add(above);
+                    above = advance(up, asked);
+                } else {
+                    nearest.add(below);
+                    below = advance(down, asked);
+                }
+            }
+            if (nearest.isEmpty()) {
+                return null;
+            }
+            ordinal = nearest.get(random.nextInt(nearest.size())).ordinal;
+        }
+        return repository.getById(QuestionOrdinals.id(ordinal));
+    }
+
+    private static Entry advance(Iterator<Entry> entries, Set<UUID> asked) {
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (!asked.contains(QuestionOrdinals.id(entry.ordinal))) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the calibrated ratings, covering the quiz history up to
+     * {@code position}, as a {@link SnapshotFile}; does nothing if nothing
+     * changed.
+     */
+    public synchronized void save(Path path, long position) throws IOException {
+        if (!dirty && position == savedPosition && Files.exists(path)) {
+            return;
+        }
+        int count = 0;
+        for (int n : answers) {
+            if (n > 0) {
+                count++;
+            }
+        }
+        SnapshotFile.write(path, MAGIC, count, RECORD_SIZE, position, out -> {
+            for (int ordinal = 0; ordinal < answers.length; ordinal++) {
+                if (answers[ordinal] > 0) {
+                    UUID id = QuestionOrdinals.id(ordinal);
+                    out.writeLong(id.getMostSignificantBits());
+                    out.writeLong(id.getLeastSignificantBits());
+                    out.writeFloat(ratings[ordinal]);
+                    out.writeInt(answers[ordinal]);
+                }
+            }
+        });
+        dirty = false;
+        savedPosition = position;
+    }
+
+    /**
+     * Replaces the calibrated ratings with those saved at path, then replays
+     * the attempts of history recorded since, in the order they were taken.
+     */
+    public synchronized void load(Path path, QuizHistory history) throws IOException {
+        uncalibrate();
+        long position = SnapshotFile.read(path, MAGIC, "question ratings", RECORD_SIZE, in -> {
+            int ordinal = QuestionOrdinals.ordinal(new UUID(in.readLong(), in.readLong()));
+            if (ordinal >= answers.length) {
+                int capacity = Math.max(ordinal + 1, answers.length * 2);
+                ratings = Arrays.copyOf(ratings, capacity);
+                answers = Arrays.copyOf(answers, capacity);
+            }
+            ratings[ordinal] = in.readFloat();
+            answers[ordinal] = in.readInt();
+            Entry entry = ordinal < entries.length ? entries[ordinal] : null;
+            if (entry != null && answers[ordinal] > 0) {
+                retree(entry, ratings[ordinal]);
+            }
+        });
+        dirty = false;
+        savedPosition = position;
+        List<QuizAttempt> unrecorded = SnapshotFile.unrecorded(history, position);
+        if (unrecorded == null) {
+            rebuild(history);
+            return;
+        }
+        for (QuizAttempt attempt : unrecorded) {
+            record(attempt);
+        }
+    }
+}
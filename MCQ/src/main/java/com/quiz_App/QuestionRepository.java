@@ -0,0 +1,756 @@
+package com.quiz_App;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * The question bank. Behaves like the plain list it replaces, but keeps an
+ * id -> position index next to it so every lookup by UUID is constant time.
+ *
+ * The bank keeps the order questions were added in. {@link #removeById(UUID)}
+ * only marks the question's slot as removed, in constant time; removed
+ * slots are dropped in one pass, keeping the order of the rest, before the
+ * bank is next read by position. Lookups by id and the index callbacks
+ * never need that pass, so deleting many questions (e.g. undoing an
+ * import) shifts the bank once. {@link #restore(int, Question)} puts a
+ * removed question back where it was (used by undo).
+ *
+ * Secondary indexes register a {@link Listener} and are told about every
+ * change, so they never have to rescan the bank.
+ *
+ * {@link #epoch()} changes whenever the bank is wiped or reloaded from
+ * outside the undo history, which tells the history its entries are stale.
+ *
+ * When the bank is opened from a {@link BinaryQuestionStore}, slots start
+ * out empty and each question is decoded the first time it is read. An
+ * empty slot stands for question i of the store where i is its position,
+ * or its entry in {@code origin} once dropping removed slots has moved it.
+ * The id index is likewise only built on the first lookup by id.
+ *
+ * The bank is edited from one thread. Other threads (quiz sessions) read
+ * it through {@link #read(Function)}: every change, including the listener
+ * calls it makes, runs under the write lock of a {@link StampedLock}, and
+ * readers use optimistic reads that only fall back to the read lock when
+ * an edit got in the way.
+ */
+public class QuestionRepository extends AbstractList<Question> implements RandomAccess {
+    // Receives every change made to the bank
+    public interface Listener {
+        void questionAdded(Question question);
+
+        void questionRemoved(Question question);
+
+        void cleared();
+
+        // Called before a question is edited in place; indexes drop the old values here
+        default void beforeUpdate(Question question) { questionRemoved(question); }
+
+        // Called after a question was edited in place
+        default void afterUpdate(Question question) { questionAdded(question); }
+
+        // Called after the whole bank was swapped for a store; lazy indexes can defer their rebuild
+        default void reloaded(QuestionRepository repository) {
+            cleared();
+            for (Question question : repository) {
+                questionAdded(question);
+            }
+        }
+
+        // Called under the write lock before concurrent readers run; lazy indexes catch up here
+        default void prepare() { }
+    }
+
+    // Empty slots are questions of the store that have not been read yet
+    private ArrayList<Question> items = new ArrayList<>();
+    private BinaryQuestionStore store;
+    // Slots of questions removed since the bank was last compacted
+    private final BitSet tombstones = new BitSet();
+    private int tombstoneCount;
+    // Store position of each empty slot once compaction has moved it; null while slot i is question i
+    private int[] origin;
+    // Slot of a question in items, by id; null until first needed after attach
+    private HashMap<UUID, Integer> positions = new HashMap<>();
+    // Ids that occur more than once (same object added twice), with their count
+    private final HashMap<UUID, Integer> duplicates = new HashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private long epoch;
+    private final StampedLock lock = new StampedLock();
+    // Set when a lazy index may have to catch up, or removed slots be dropped, before concurrent reads
+    private volatile boolean unprepared;
+    // What concurrent readers see: unloaded questions are decoded without being cached
+    private final List<Question> readView = new ReadView();
+
+    public QuestionRepository() {
+    }
+
+    public QuestionRepository(Collection<? extends Question> initial) {
+        addAll(initial);
+    }
+
+    /**
+     * The question at a position, decoding it if it was not read yet. The
+     * decoded question is only kept when the write lock is free, so reading
+     * never changes a slot under a concurrent reader; this is the edit
+     * thread's accessor, and other threads use {@link #read(Function)}.
+     */
+    @Override
+    public Question get(int index) {
+        if (tombstoneCount > 0) {
+            compactNow();
+        }
+        return slot(index);
+    }
+
+    // The question in a slot, decoding it if it was not read yet; get without compacting
+    private Question slot(int index) {
+        Question question = items.get(index);
+        if (question == null) {
+            question = store.load(storeIndex(index));
+            long stamp = lock.tryWriteLock();
+            if (stamp != 0) {
+                try {
+                    items.set(index, question);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+        }
+        return question;
+    }
+
+    // Decodes and keeps the question at a position; caller holds the write lock
+    private Question materialize(int index) {
+        Question question = items.get(index);
+        if (question == null) {
+            question = store.load(storeIndex(index));
+            items.set(index, question);
+        }
+        return question;
+    }
+
+    // Reads a question without keeping an unloaded one on the heap; the edit thread's accessor
+    Question peek(int index) {
+        if (tombstoneCount > 0) {
+            compactNow();
+        }
+        return peekSlot(index);
+    }
+
+    // Reads the question in a slot without compacting or keeping an unloaded one on the heap
+    private Question peekSlot(int index) {
+        Question question = items.get(index);
+        return question != null ? question : store.load(storeIndex(index));
+    }
+
+    private int storeIndex(int slot) {
+        return origin == null ? slot : origin[slot];
+    }
+
+    @Override
+    public int size() {
+        return items.size() - tombstoneCount;
+    }
+
+    @Override
+    public void add(int index, Question question) {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+            materializeFrom(index);
+            items.add(index, question);
+            modCount++;
+            if (positions != null) {
+                track(question.getId(), index);
+                if (index < items.size() - 1) {
+                    reindexFrom(index + 1);
+                }
+            }
+            fireAdded(question);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Question> c) {
+        items.ensureCapacity(items.size() + c.size());
+        return super.addAll(c);
+    }
+
+    @Override
+    public Question set(int index, Question question) {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+            Question old = materialize(index);
+            items.set(index, question);
+            if (positions != null) {
+                untrack(old.getId());
+                track(question.getId(), index);
+            }
+            fireRemoved(old);
+            fireAdded(question);
+            return old;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Question remove(int index) {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+            Question removed = materialize(index);
+            materializeFrom(index + 1);
+            items.remove(index);
+            modCount++;
+            if (positions != null) {
+                reindexFrom(index);
+                untrack(removed.getId());
+            }
+            fireRemoved(removed);
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            items.clear();
+            store = null;
+            origin = null;
+            dropTombstones();
+            positions = new HashMap<>();
+            duplicates.clear();
+            modCount++;
+            epoch++;
+            for (Listener listener : listeners) {
+                listener.cleared();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Empties the bank and hands its contents to the caller without copying.
+     * Unlike {@link #clear()} this does not change the epoch, so it is what
+     * undoable operations such as a reset use.
+     */
+    public List<Question> takeAll() {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+            List<Question> taken = store == null ? items : new StoreView(items, store, origin);
+            items = new ArrayList<>();
+            store = null;
+            origin = null;
+            positions = new HashMap<>();
+            duplicates.clear();
+            modCount++;
+            for (Listener listener : listeners) {
+                listener.cleared();
+            }
+            return taken;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    // Replaces the whole bank, e.g. after loading or undoing to a snapshot
+    public void reload(Collection<? extends Question> snapshot) {
+        List<Question> copy = new ArrayList<>(snapshot);
+        clear();
+        addAll(copy);
+    }
+
+    /**
+     * Replaces the whole bank with the contents of a store. No question is
+     * decoded here; listeners are told through {@link Listener#reloaded}.
+     */
+    public void attach(BinaryQuestionStore newStore) {
+        long stamp = lock.writeLock();
+        try {
+            items = new ArrayList<>(Collections.nCopies(newStore.size(), (Question) null));
+            store = newStore;
+            origin = null;
+            dropTombstones();
+            positions = null;
+            duplicates.clear();
+            modCount++;
+            epoch++;
+            for (Listener listener : listeners) {
+                listener.reloaded(this);
+            }
+            unprepared = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Points unloaded slots at a store that was just written from this bank,
+     * so question i of the new store is the question in slot i.
+     */
+    public void rebase(BinaryQuestionStore newStore) {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+            if (newStore.size() != items.size()) {
+                throw new IllegalArgumentException("Store does not match the bank");
+            }
+            if (store != null) {
+                store = newStore;
+                origin = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Question getById(UUID id) {
+        Integer position = positions().get(id);
+        return position == null ? null : slot(position);
+    }
+
+    // Reads a question by id without keeping an unloaded one on the heap
+    Question peekById(UUID id) {
+        Integer position = positions().get(id);
+        return position == null ? null : peekSlot(position);
+    }
+
+    public Optional<Question> findById(UUID id) {
+        return Optional.ofNullable(getById(id));
+    }
+
+    public boolean containsId(UUID id) {
+        return positions().containsKey(id);
+    }
+
+    public int indexOfId(UUID id) {
+        if (tombstoneCount > 0) {
+            compactNow();
+        }
+        Integer position = positions().get(id);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Removes a question in constant time: its slot is only marked, and the
+     * bank closes the gap, keeping the order of the other questions, the
+     * next time it is read by position.
+     */
+    public Question removeById(UUID id) {
+        long stamp = lock.writeLock();
+        try {
+            Integer position = positions().get(id);
+            if (position == null) {
+                return null;
+            }
+            int index = position;
+            Question removed = materialize(index);
+            tombstones.set(index);
+            tombstoneCount++;
+            modCount++;
+            untrack(removed.getId());
+            unprepared = true;
+            fireRemoved(removed);
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Puts a question back at the position it was removed from, moving the later ones up again
+    public void restore(int index, Question question) {
+        add(Math.min(index, size()), question);
+    }
+
+    // Applies an in-place edit to a question and keeps the indexes in step
+    public void update(Question question, Consumer<Question> change) {
+        long stamp = lock.writeLock();
+        try {
+            for (Listener listener : listeners) {
+                listener.beforeUpdate(question);
+            }
+            change.accept(question);
+            for (Listener listener : listeners) {
+                listener.afterUpdate(question);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Runs a read-only query from any thread. The reader gets a view of the
+     * bank that never caches decoded questions, and may also query the
+     * registered indexes. It runs without locking first; if an edit got in
+     * its way it runs again under the read lock, so it must not have side
+     * effects and must copy anything it wants to keep.
+     */
+    public <T> T read(Function<List<Question>, T> reader) {
+        if (unprepared) {
+            prepareForReaders();
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.apply(readView);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // The plain maps and lists can fail half way through a concurrent edit; a real
+                // failure happens again under the lock and is thrown from there
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            if (unprepared) {
+                // The bank was reloaded meanwhile; let the indexes catch up first
+                long writeStamp = lock.tryConvertToWriteLock(stamp);
+                if (writeStamp == 0) {
+                    lock.unlockRead(stamp);
+                    writeStamp = lock.writeLock();
+                }
+                stamp = writeStamp;
+                prepareListeners();
+                stamp = lock.tryConvertToReadLock(stamp);
+            }
+            return reader.apply(readView);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    private void prepareForReaders() {
+        long stamp = lock.writeLock();
+        try {
+            prepareListeners();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Caller holds the write lock
+    private void prepareListeners() {
+        if (!unprepared) {
+            return;
+        }
+        compact();
+        // Indexes resolve ids through it, so readers must never be the ones to build it
+        positions();
+        for (Listener listener : listeners) {
+            listener.prepare();
+        }
+        unprepared = false;
+    }
+
+    // Receives the LabelDictionary codes of one question's category and difficulty
+    interface ClassificationConsumer {
+        void accept(int category, int difficulty);
+    }
+
+    // Passes the category and difficulty codes of every question to action without decoding unloaded ones
+    void forEachClassification(ClassificationConsumer action) {
+        for (int i = 0; i < items.size(); i++) {
+            if (tombstones.get(i)) {
+                continue;
+            }
+            Question question = items.get(i);
+            if (question != null) {
+                action.accept(question.categoryCode(), question.difficultyCode());
+            } else {
+                action.accept(store.categoryCodeAt(storeIndex(i)), store.difficultyCodeAt(storeIndex(i)));
+            }
+        }
+    }
+
+    // Receives the id and LabelDictionary codes of one question
+    interface LabelledConsumer {
+        void accept(UUID id, int category, int difficulty);
+    }
+
+    // Passes the id, category and difficulty codes of every question to action without decoding unloaded ones
+    void forEachLabelled(LabelledConsumer action) {
+        for (int i = 0; i < items.size(); i++) {
+            if (tombstones.get(i)) {
+                continue;
+            }
+            Question question = items.get(i);
+            if (question != null) {
+                action.accept(question.getId(), question.categoryCode(), question.difficultyCode());
+            } else {
+                int at = storeIndex(i);
+                action.accept(store.idAt(at), store.categoryCodeAt(at), store.difficultyCodeAt(at));
+            }
+        }
+    }
+
+    // Passes the id and creation time of every question to action without decoding unloaded ones
+    void forEachCreated(BiConsumer<UUID, LocalDateTime> action) {
+        for (int i = 0; i < items.size(); i++) {
+            if (tombstones.get(i)) {
+                continue;
+            }
+            Question question = items.get(i);
+            if (question != null) {
+                action.accept(question.getId(), question.getCreatedAt());
+            } else {
+                action.accept(store.idAt(storeIndex(i)), store.createdAt(storeIndex(i)));
+            }
+        }
+    }
+
+    // What an index that is only built on its first query reads from the bank
+    interface LazyBuild<T> {
+        // Reads the bank (e.g. with forEachCreated); may be called again if an edit got in the way
+        T build();
+
+        /**
+         * Publishes what build returned if {@code unchanged} still holds and
+         * says whether it did. The check must be made under the lock of the
+         * index's listener callbacks, so no edit falls between the build and
+         * the index starting to follow edits again.
+         */
+        boolean install(T built, BooleanSupplier unchanged);
+    }
+
+    /**
+     * Builds a lazy index from whichever thread queries it first, the editing
+     * thread or a reader inside {@link #read(Function)}. The build runs
+     * optimistically and once more under the read lock if an edit got in its
+     * way, like a reader does.
+     */
+    <T> void buildLazily(LazyBuild<T> lazy) {
+        long optimistic = lock.tryOptimisticRead();
+        if (optimistic != 0) {
+            try {
+                if (lazy.install(lazy.build(), () -> lock.validate(optimistic))) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(optimistic)) {
+                    throw e;
+                }
+            }
+        }
+        // An edit got in the way, so this thread holds no read lock that could deadlock here
+        long stamp = lock.readLock();
+        try {
+            lazy.install(lazy.build(), () -> true);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Registers an index and feeds it the questions already in the bank
+    public <L extends Listener> L register(L listener) {
+        long stamp = lock.writeLock();
+        try {
+            listeners.add(listener);
+            if (store != null) {
+                listener.reloaded(this);
+                unprepared = true;
+            } else {
+                for (Question question : items) {
+                    listener.questionAdded(question);
+                }
+            }
+            return listener;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Registers a listener that only wants changes from now on, such as the journal
+    public void addListener(Listener listener) {
+        long stamp = lock.writeLock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        long stamp = lock.writeLock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void fireAdded(Question question) {
+        for (Listener listener : listeners) {
+            listener.questionAdded(question);
+        }
+    }
+
+    private void fireRemoved(Question question) {
+        for (Listener listener : listeners) {
+            listener.questionRemoved(question);
+        }
+    }
+
+    // Builds the id index on first use after attaching a store, reading ids straight from it
+    private HashMap<UUID, Integer> positions() {
+        if (positions == null) {
+            positions = new HashMap<>(Math.max(16, (int) (items.size() / 0.75f) + 1));
+            for (int i = 0; i < items.size(); i++) {
+                if (!tombstones.get(i)) {
+                    track(idAt(i), i);
+                }
+            }
+        }
+        return positions;
+    }
+
+    private UUID idAt(int index) {
+        Question question = items.get(index);
+        return question != null ? question.getId() : store.idAt(storeIndex(index));
+    }
+
+    private void compactNow() {
+        long stamp = lock.writeLock();
+        try {
+            compact();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drops the slots of removed questions, moving the rest down in order.
+     * Empty slots move without being decoded; origin remembers which
+     * question of the store each one stands for. Caller holds the write lock.
+     */
+    private void compact() {
+        if (tombstoneCount == 0) {
+            return;
+        }
+        int first = tombstones.nextSetBit(0);
+        if (store != null && origin == null) {
+            origin = new int[items.size()];
+            Arrays.setAll(origin, i -> i);
+        }
+        int to = first;
+        for (int from = first; from < items.size(); from++) {
+            if (!tombstones.get(from)) {
+                items.set(to, items.get(from));
+                if (origin != null && from < origin.length) {
+                    origin[to] = origin[from];
+                }
+                to++;
+            }
+        }
+        items.subList(to, items.size()).clear();
+        dropTombstones();
+        if (positions != null) {
+            reindexFrom(first);
+        }
+    }
+
+    private void dropTombstones() {
+        tombstones.clear();
+        tombstoneCount = 0;
+    }
+
+    // Slots from start on are about to shift, so they can no longer stand for store positions; caller holds the write lock
+    private void materializeFrom(int start) {
+        if (store == null) {
+            return;
+        }
+        for (int i = start; i < items.size(); i++) {
+            materialize(i);
+        }
+    }
+
+    private void track(UUID id, int index) {
+        Integer previous = positions.put(id, index);
+        if (previous != null) {
+            duplicates.merge(id, 2, (count, ignored) -> count + 1);
+        }
+    }
+
+    private void untrack(UUID id) {
+        Integer count = duplicates.get(id);
+        if (count == null) {
+            positions.remove(id);
+            return;
+        }
+        // Rare path: another copy of the same question is still in the bank
+        if (count <= 2) {
+            duplicates.remove(id);
+        } else {
+            duplicates.put(id, count - 1);
+        }
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (!tombstones.get(i) && idAt(i).equals(id)) {
+                positions.put(id, i);
+                return;
+            }
+        }
+        positions.remove(id);
+    }
+
+    private void reindexFrom(int start) {
+        for (int i = start; i < items.size(); i++) {
+            positions.put(idAt(i), i);
+        }
+    }
+
+    // Read-only view of the bank for concurrent readers; never writes to a slot
+    private class ReadView extends AbstractList<Question> implements RandomAccess {
+        @Override
+        public Question get(int index) {
+            return peekSlot(index);
+        }
+
+        @Override
+        public int size() {
+            return QuestionRepository.this.size();
+        }
+    }
+
+    // Contents taken out of a store-backed bank; unloaded questions are decoded on access
+    private static class StoreView extends AbstractList<Question> implements RandomAccess {
+        private final List<Question> items;
+        private final BinaryQuestionStore store;
+        private final int[] origin;
+
+        StoreView(List<Question> items, BinaryQuestionStore store, int[] origin) {
+            this.items = items;
+            this.store = store;
+            this.origin = origin;
+        }
+
+        @Override
+        public Question get(int index) {
+            Question question = items.get(index);
+            return question != null ? question : store.load(origin == null ? index : origin[index]);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+    }
+}
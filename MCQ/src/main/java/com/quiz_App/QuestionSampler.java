@@ -0,0 +1,52 @@
+package com.quiz_App;
+
+import java.util.*;
+
+/**
+ * Draws quiz questions without copying or shuffling the pool.
+ *
+ * A partial Fisher-Yates shuffle over positions of the pool: only the
+ * positions that have been swapped are remembered, so drawing k questions
+ * costs O(k) time and memory however large the pool is. The pool should
+ * be a {@link RandomAccess} list such as the bank or an index view.
+ *
+ * Quizzes are reproducible when the sampler is seeded, e.g. with the
+ * {@code mcq.quiz.seed} system property.
+ */
+public class QuestionSampler {
+    private final Random random;
+
+    public QuestionSampler() {
+        this(seeded(Long.getLong("mcq.quiz.seed")));
+    }
+
+    public QuestionSampler(long seed) {
+        this(new Random(seed));
+    }
+
+    public QuestionSampler(Random random) {
+        this.random = random;
+    }
+
+    private static Random seeded(Long seed) {
+        return seed == null ? new Random() : new Random(seed);
+    }
+
+    // k distinct entries of the pool in random order
+    public <T> List<T> sample(List<T> pool, int k) {
+        int n = pool.size();
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("Cannot draw " + k + " of " + n + " questions");
+        }
+        List<T> drawn = new ArrayList<>(k);
+        // Position -> position now stored there, for positions moved by earlier swaps
+        Map<Integer, Integer> moved = new HashMap<>(Math.max(16, k * 2));
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int picked = moved.getOrDefault(j, j);
+            moved.put(j, moved.getOrDefault(i, i));
+            drawn.add(pool.get(picked));
+        }
+        return drawn;
+    }
+}
@@ -0,0 +1,107 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Live question counts per category and per difficulty, kept up to date by
+ * {@link QuestionRepository} so reading them costs O(number of categories)
+ * instead of a pass over the bank. Names are counted exactly as entered,
+ * like the statistics screen always did, keyed on their
+ * {@link LabelDictionary} codes.
+ *
+ * After the bank is opened from a store the counts are rebuilt on the first
+ * read, from the store's label codes rather than decoded questions.
+ */
+public class QuestionStatistics implements QuestionRepository.Listener {
+    // Mutable count, so updates do not box a new Long
+    private static class Counter {
+        private long value;
+    }
+
+    private final Map<Integer, Counter> categories = new LinkedHashMap<>();
+    private final Map<Integer, Counter> difficulties = new LinkedHashMap<>();
+    // Bank to recount on the next read, or null when the counts are current
+    private QuestionRepository stale;
+
+    @Override
+    public void questionAdded(Question question) {
+        if (stale == null) {
+            count(question.categoryCode(), question.difficultyCode(), 1);
+        }
+    }
+
+    @Override
+    public void questionRemoved(Question question) {
+        if (stale == null) {
+            count(question.categoryCode(), question.difficultyCode(), -1);
+        }
+    }
+
+    @Override
+    public void cleared() {
+        categories.clear();
+        difficulties.clear();
+        stale = null;
+    }
+
+    @Override
+    public void reloaded(QuestionRepository repository) {
+        categories.clear();
+        difficulties.clear();
+        stale = repository;
+    }
+
+    // Question count per category, in the order categories first appeared
+    public Map<String, Long> categoryCounts() {
+        ensureCurrent();
+        return snapshot(categories, LabelDictionary.CATEGORIES);
+    }
+
+    // Question count per difficulty level, in the order levels first appeared
+    public Map<String, Long> difficultyCounts() {
+        ensureCurrent();
+        return snapshot(difficulties, LabelDictionary.DIFFICULTIES);
+    }
+
+    @Override
+    public void prepare() {
+        ensureCurrent();
+    }
+
+    private void ensureCurrent() {
+        if (stale == null) {
+            return;
+        }
+        QuestionRepository repository = stale;
+        stale = null;
+        repository.forEachClassification((category, difficulty) -> count(category, difficulty, 1));
+    }
+
+    private void count(int category, int difficulty, int delta) {
+        adjust(categories, category, delta);
+        adjust(difficulties, difficulty, delta);
+    }
+
+    private static void adjust(Map<Integer, Counter> counters, int code, int delta) {
+        Counter counter = counters.get(code);
+        if (counter == null) {
+            if (delta < 0) {
+                return;
+            }
+            counter = new Counter();
+            counters.put(code, counter);
+        }
+        counter.value += delta;
+        if (counter.value <= 0) {
+            counters.remove(code);
+        }
+    }
+
+    private static Map<String, Long> snapshot(Map<Integer, Counter> counters, LabelDictionary names) {
+        Map<String, Long> counts = new LinkedHashMap<>(Math.max(16, counters.size() * 2));
+        counters.forEach((code, counter) -> counts.put(names.name(code), counter.value));
+        return Collections.unmodifiableMap(counts);
+    }
+}
@@ -0,0 +1,130 @@
+package com.quiz_App;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Runs many quiz takers at once against the shared question bank.
+ *
+ * Each taker runs on its own thread: a virtual thread when the JVM has
+ * them (Java 21 and later), otherwise a platform thread from a cached pool.
+ * Questions are drawn through {@link QuestionRepository#read}, which does
+ * not lock unless an admin edit is in progress, and are copied into the
+ * {@link QuizSession}, so edits made meanwhile never reach a running quiz.
+ * Finished attempts go to an {@link AttemptRecorder}, which does not block.
+ */
+public class QuizEngine implements AutoCloseable {
+    // Answers questions for one quiz taker
+    public interface Taker {
+        /**
+         * Returns 'A' to 'D' to answer the current question of the session,
+         * 'S' to skip it or 'E' to stop the quiz.
+         */
+        char answer(QuizSession session, Question question);
+    }
+
+    private final QuestionRepository bank;
+    private final CategoryIndex index;
+    private final AttemptRecorder recorder;
+    private final ExecutorService executor;
+    // Seeds each session's sampler when the engine is seeded, null otherwise
+    private final Long seed;
+    private final AtomicLong sessions = new AtomicLong();
+
+    public QuizEngine(QuestionRepository bank, CategoryIndex index, AttemptRecorder recorder) {
+        this(bank, index, recorder, Long.getLong("mcq.quiz.seed"));
+    }
+
+    public QuizEngine(QuestionRepository bank, CategoryIndex index, AttemptRecorder recorder, Long seed) {
+        this.bank = bank;
+        this.index = index;
+        this.recorder = recorder;
+        this.seed = seed;
+        this.executor = newTakerExecutor();
+    }
+
+    // One virtual thread per task where available, reached reflectively so the app still runs on Java 17
+    static ExecutorService newTakerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "mcq-quiz-taker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Draws {@code count} questions matching the filters (empty matches all)
+     * and starts a session on copies of them.
+     *
+     * @throws IllegalArgumentException if fewer questions match
+     */
+    public QuizSession start(String category, String difficulty, int count) {
+        QuestionSampler sampler = seed == null
+            ? new QuestionSampler(ThreadLocalRandom.current())
+            : new QuestionSampler(seed + sessions.getAndIncrement());
+        boolean unfiltered = CategoryIndex.normalize(category).isEmpty()
+            && CategoryIndex.normalize(difficulty).isEmpty();
+        long start = OperationMetrics.start();
+        FlightEvents.QuizAssembly event = new FlightEvents.QuizAssembly();
+        event.begin();
+        int[] poolSize = new int[1];
+        List<Question> drawn = bank.read(questions -> {
+            List<Question> pool = unfiltered ? questions : index.find(category, difficulty);
+            poolSize[0] = pool.size();
+            // Copy inside the read so a torn read is retried rather than kept
+            return QuizSession.copiesOf(sampler.sample(pool, count));
+        });
+        OperationMetrics.QUIZ_DRAW.stop(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.category = category;
+            event.difficulty = difficulty;
+            event.poolSize = poolSize[0];
+            event.questions = drawn.size();
+            event.commit();
+        }
+        return QuizSession.ofCopies(category, difficulty, drawn);
+    }
+
+    /**
+     * Runs one quiz for {@code taker} on its own thread and records the
+     * attempt when it is done.
+     */
+    public CompletableFuture<QuizAttempt> submit(Taker taker, String category, String difficulty, int count) {
+        return CompletableFuture.supplyAsync(() -> {
+            QuizSession session = start(category, difficulty, count);
+            while (session.hasNext()) {
+                char choice = Character.toUpperCase(taker.answer(session, session.current()));
+                if (choice == 'E') {
+                    break;
+                } else if (choice >= 'A' && choice <= 'D') {
+                    session.answer(choice);
+                } else {
+                    session.skip();
+                }
+            }
+            QuizAttempt attempt = session.finish();
+            recorder.record(session);
+            return attempt;
+        }, executor);
+    }
+
+    // Waits for running quizzes to finish; an interrupt stops the wait and is kept on the thread
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
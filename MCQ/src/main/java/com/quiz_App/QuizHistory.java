@@ -0,0 +1,550 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Quiz history, kept in its own directory of append-only segment files.
+ *
+ * Each segment is named after the position of its first attempt and holds
+ * up to {@code segmentSize} records of {@code [int length][int crc32][payload]}.
+ * Nothing is read when the history is attached; the directory is listed on
+ * first use and a segment is only decoded when one of its attempts is read.
+ * A new attempt is appended to the last segment, so saving never rewrites
+ * older attempts.
+ *
+ * A reset hides the attempts taken so far by moving the start of the
+ * visible history (kept in the {@code base} file) instead of deleting them,
+ * so it can be undone. Segments that are entirely hidden are deleted on
+ * {@link #close()}.
+ *
+ * Until {@link #attach(Path)} is called the history lives in memory only.
+ *
+ * The history is thread-safe. Quiz sessions on other threads hand their
+ * attempts to {@link #record(QuizAttempt)}, which never blocks; whichever
+ * thread releases the lock last writes them.
+ */
+public class QuizHistory extends AbstractList<QuizAttempt> implements RandomAccess, Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String BASE_FILE = "base";
+    private static final int CACHED_SEGMENTS = 4;
+
+    private final int segmentSize;
+    // Guards everything below; attempts recorded from other threads wait in the inbox
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<QuizAttempt> inbox = new ConcurrentLinkedQueue<>();
+    // Attempts of a history that is not attached to a directory
+    private final List<QuizAttempt> memory = new ArrayList<>();
+    private Path directory;
+    // Whether the segments of the attached directory have been listed
+    private boolean opened;
+    // First position of each segment -> its file
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    // Number of attempts ever appended, hidden ones included
+    private long total;
+    // Position of the first visible attempt
+    private long base;
+    private FileChannel active;
+    private long activeFirst;
+    private int activeCount;
+    // Recently read segments, least recently used first
+    private final LinkedHashMap<Long, List<QuizAttempt>> cache =
+        new LinkedHashMap<>(CACHED_SEGMENTS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<QuizAttempt>> eldest) {
+                return size() > CACHED_SEGMENTS;
+            }
+        };
+
+    public QuizHistory() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    public QuizHistory(int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be positive");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Stores the history in {@code dir} from now on. The directory is not
+     * read until the history is first used. Attempts recorded before the
+     * history was attached are appended to it.
+     */
+    public void attach(Path dir) throws IOException {
+        lock.lock();
+        try {
+            if (dir.equals(directory)) {
+                return;
+            }
+            List<QuizAttempt> pending = new ArrayList<>(this);
+            close();
+            Files.createDirectories(dir);
+            directory = dir;
+            opened = false;
+            memory.clear();
+            base = 0;
+            total = 0;
+            modCount++;
+            for (QuizAttempt attempt : pending) {
+                append(attempt);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Records a finished attempt from any thread without waiting: it is
+     * queued lock-free and written by whichever thread holds the history
+     * next, possibly this one.
+     */
+    public void record(QuizAttempt attempt) {
+        inbox.add(attempt);
+        if (lock.tryLock()) {
+            try {
+                drainInbox();
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    // True if the history holds no attempts at all, hidden ones included
+    public boolean isStoreEmpty() {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            return total == 0;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Position after the last attempt recorded so far, hidden ones included.
+     * Stores kept up to date from the history save it with their data, so
+     * {@link #since(long)} can later hand them the attempts they missed.
+     */
+    public long end() {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            return total;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * The attempts recorded from {@code position} on, oldest first, or null
+     * if some of them are hidden or the history no longer reaches that far
+     * (it was reset or cleared since).
+     */
+    public List<QuizAttempt> since(long position) {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            if (position < base || position > total) {
+                return null;
+            }
+            return new ArrayList<>(subList((int) (position - base), (int) (total - base)));
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public QuizAttempt get(int index) {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            if (index < 0 || index >= total - base) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (total - base));
+            }
+            long position = base + index;
+            if (directory == null) {
+                return memory.get((int) position);
+            }
+            long first = segments.floorKey(position);
+            return segment(first).get((int) (position - first));
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            return (int) (total - base);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public boolean add(QuizAttempt attempt) {
+        lock.lock();
+        try {
+            drainInbox();
+            append(attempt);
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void add(int index, QuizAttempt attempt) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Quiz history is append-only");
+        }
+        add(attempt);
+    }
+
+    // Deletes the whole history, hidden attempts included
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            inbox.clear();
+            memory.clear();
+            if (directory != null) {
+                try {
+                    closeActive();
+                    for (Path segment : segments.values()) {
+                        Files.deleteIfExists(segment);
+                    }
+                    Files.deleteIfExists(directory.resolve(BASE_FILE));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not clear quiz history", e);
+                }
+                segments.clear();
+                cache.clear();
+                opened = true;
+            }
+            total = 0;
+            base = 0;
+            modCount++;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Hides every attempt taken so far and returns the previous start of the
+     * history, which {@link #unhide(long)} takes to bring them back.
+     */
+    public long hideAll() {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            long previous = base;
+            setBase(total);
+            return previous;
+        } finally {
+            unlock();
+        }
+    }
+
+    public void unhide(long previousBase) {
+        lock.lock();
+        try {
+            drainInbox();
+            ensureOpen();
+            setBase(Math.min(Math.max(previousBase, 0), total));
+        } finally {
+            unlock();
+        }
+    }
+
+    // Writes queued attempts and forces appended attempts to disk
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            drainInbox();
+            if (active != null) {
+                active.force(false);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // Flushes the history and deletes segments that only hold hidden attempts
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            drainInbox();
+            if (directory == null || !opened) {
+                return;
+            }
+            closeActive();
+            Iterator<Map.Entry<Long, Path>> it = segments.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Path> entry = it.next();
+                Long next = segments.higherKey(entry.getKey());
+                long end = next != null ? next : total;
+                if (end > base) {
+                    break;
+                }
+                Files.deleteIfExists(entry.getValue());
+                cache.remove(entry.getKey());
+                it.remove();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Releases the lock, then drains attempts recorded while it was held:
+     * their threads failed to take the lock and left them in the inbox, and
+     * the holder may have drained it before they arrived.
+     */
+    private void unlock() {
+        lock.unlock();
+        while (!inbox.isEmpty() && lock.tryLock()) {
+            try {
+                drainInbox();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void drainInbox() {
+        QuizAttempt attempt;
+        while ((attempt = inbox.poll()) != null) {
+            append(attempt);
+        }
+    }
+
+    // Caller holds the lock
+    private void append(QuizAttempt attempt) {
+        ensureOpen();
+        if (directory == null) {
+            memory.add(attempt);
+        } else {
+            try {
+                appendToSegment(attempt);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not record quiz attempt", e);
+            }
+        }
+        total++;
+        modCount++;
+    }
+
+    private void setBase(long newBase) {
+        if (directory != null) {
+            try {
+                Path file = directory.resolve(BASE_FILE);
+                Path temp = directory.resolve(BASE_FILE + ".tmp");
+                Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(newBase).array());
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not update quiz history", e);
+            }
+        }
+        base = newBase;
+        modCount++;
+    }
+
+    // Lists the segments and counts the attempts of the last one
+    private void ensureOpen() {
+        if (directory == null || opened) {
+            return;
+        }
+        try {
+            segments.clear();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                     .forEach(file -> {
+                         String name = file.getFileName().toString();
+                         segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+                     });
+            }
+            Path baseFile = directory.resolve(BASE_FILE);
+            base = Files.exists(baseFile) ? ByteBuffer.wrap(Files.readAllBytes(baseFile)).getLong() : 0;
+
+            if (segments.isEmpty()) {
+                total = base;
+            } else {
+                Map.Entry<Long, Path> last = segments.lastEntry();
+                activeFirst = last.getKey();
+                activeCount = countAndRepair(last.getValue());
+                total = activeFirst + activeCount;
+            }
+            base = Math.min(base, total);
+            opened = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open quiz history", e);
+        }
+    }
+
+    // Counts the complete records of a segment and cuts off a torn tail from an interrupted write
+    private static int countAndRepair(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes) < 0) {
+                    break;
+                }
+            }
+            bytes.flip();
+            int count = 0;
+            while (readRecord(bytes) != null) {
+                count++;
+            }
+            if (bytes.position() < channel.size()) {
+                channel.truncate(bytes.position());
+            }
+            return count;
+        }
+    }
+
+    // Decodes a segment, or returns it from the cache
+    private List<QuizAttempt> segment(long first) {
+        List<QuizAttempt> attempts = cache.get(first);
+        if (attempts != null) {
+            return attempts;
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segments.get(first)));
+            attempts = new ArrayList<>();
+            byte[] payload;
+            while ((payload = readRecord(bytes)) != null) {
+                attempts.add(decode(payload));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read quiz history", e);
+        }
+        Long next = segments.higherKey(first);
+        if (attempts.size() < (next != null ? next : total) - first) {
+            throw new UncheckedIOException(new IOException("Quiz history segment is damaged: " + segments.get(first)));
+        }
+        cache.put(first, attempts);
+        return attempts;
+    }
+
+    private void appendToSegment(QuizAttempt attempt) throws IOException {
+        if (active == null || activeCount >= segmentSize) {
+            if (active == null && !segments.isEmpty() && activeCount < segmentSize && activeFirst + activeCount == total) {
+                active = FileChannel.open(segments.get(activeFirst), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } else {
+                closeActive();
+                activeFirst = total;
+                activeCount = 0;
+                Path file = directory.resolve(String.format("%012d%s", total, SEGMENT_SUFFIX));
+                active = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+                segments.put(activeFirst, file);
+            }
+        }
+        byte[] payload = encode(attempt);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+            active.write(record);
+        }
+        activeCount++;
+        List<QuizAttempt> cached = cache.get(activeFirst);
+        if (cached != null) {
+            cached.add(attempt);
+        }
+    }
+
+    private void closeActive() throws IOException {
+        if (active != null) {
+            active.force(false);
+            active.close();
+            active = null;
+        }
+    }
+
+    // Next record's payload, or null at the end or at an incomplete or damaged record
+    private static byte[] readRecord(ByteBuffer bytes) {
+        if (bytes.remaining() < 2 * Integer.BYTES) {
+            return null;
+        }
+        int start = bytes.position();
+        int length = bytes.getInt();
+        int checksum = bytes.getInt();
+        if (length < 0 || length > bytes.remaining()) {
+            bytes.position(start);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        bytes.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            bytes.position(start);
+            return null;
+        }
+        return payload;
+    }
+
+    private static byte[] encode(QuizAttempt attempt) throws IOException {
+        int answers = attempt.answerCount();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + answers * 20);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(attempt.getCategory() == null ? "" : attempt.getCategory());
+            out.writeUTF(attempt.getDifficultyLevel() == null ? "" : attempt.getDifficultyLevel());
+            out.writeLong(attempt.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(attempt.getTimestamp().getNano());
+            out.writeInt(answers);
+            // Straight from the attempt's columns, without making an answer object each
+            for (int i = 0; i < answers; i++) {
+                UUID questionId = attempt.questionIdAt(i);
+                out.writeLong(questionId.getMostSignificantBits());
+                out.writeLong(questionId.getLeastSignificantBits());
+                out.writeChar(attempt.userAnswerAt(i));
+                out.writeBoolean(attempt.isCorrectAt(i));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static QuizAttempt decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String category = in.readUTF();
+        String difficulty = in.readUTF();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        QuizAttempt attempt = new QuizAttempt(category, difficulty, timestamp);
+        int answers = in.readInt();
+        attempt.ensureCapacity(answers);
+        for (int i = 0; i < answers; i++) {
+            UUID questionId = new UUID(in.readLong(), in.readLong());
+            char userAnswer = in.readChar();
+            attempt.addAnswer(questionId, userAnswer, in.readBoolean());
+        }
+        return attempt;
+    }
+}
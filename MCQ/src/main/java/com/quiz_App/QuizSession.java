@@ -0,0 +1,147 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * One quiz being taken: the drawn questions and the answers so far.
+ *
+ * The session works on its own copies of the questions, taken when it is
+ * created, so an admin editing or deleting a question never changes a quiz
+ * that is in progress. A session belongs to one taker and is not shared
+ * between threads.
+ *
+ * Each answer is timed from the moment its question became current (the
+ * previous answer, or the start of the session) until it was given.
+ *
+ * Adaptive quizzes start empty and {@link #append} each question once the
+ * previous one was answered.
+ */
+public class QuizSession {
+    private final List<Question> drawn;
+    private final List<Question> questions;
+    private final QuizAttempt attempt;
+    private int next;
+    // Milliseconds taken for each answer; -1 for questions closed by finish()
+    private int[] responseMillis;
+    private long shownAt = System.nanoTime();
+
+    public QuizSession(String category, String difficultyLevel, List<Question> drawn) {
+        this(copiesOf(drawn), category, difficultyLevel);
+    }
+
+    // For questions the caller has already copied
+    private QuizSession(List<Question> copies, String category, String difficultyLevel) {
+        this.drawn = copies;
+        this.questions = Collections.unmodifiableList(copies);
+        this.attempt = new QuizAttempt(category, difficultyLevel);
+        attempt.ensureCapacity(copies.size());
+        this.responseMillis = new int[copies.size()];
+    }
+
+    static QuizSession ofCopies(String category, String difficultyLevel, List<Question> copies) {
+        return new QuizSession(copies, category, difficultyLevel);
+    }
+
+    static List<Question> copiesOf(List<Question> drawn) {
+        List<Question> copies = new ArrayList<>(drawn.size());
+        for (Question question : drawn) {
+            copies.add(copyOf(question));
+        }
+        return copies;
+    }
+
+    // A detached copy; the options array is cloned because it is mutable
+    static Question copyOf(Question question) {
+        return new Question(question.getId(), question.getQuestion(), question.getOptions().clone(),
+            question.getCorrectOption(), question.categoryCode(), question.difficultyCode(),
+            question.getCreatedAt());
+    }
+
+    // Adds a copy of a question to the end of the quiz
+    public void append(Question question) {
+        if (drawn.size() == responseMillis.length) {
+            responseMillis = Arrays.copyOf(responseMillis, Math.max(10, drawn.size() * 2));
+        }
+        drawn.add(copyOf(question));
+        if (next == drawn.size() - 1) {
+            // Times the new question from when it was shown, not from the previous answer
+            shownAt = System.nanoTime();
+        }
+    }
+
+    // The session's own copies of the drawn questions, in quiz order
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    // Number of the current question, starting at 1
+    public int number() {
+        return next + 1;
+    }
+
+    public boolean hasNext() {
+        return next < questions.size();
+    }
+
+    public Question current() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Quiz is finished");
+        }
+        return questions.get(next);
+    }
+
+    // Records an answer (A-D) to the current question and moves on; returns whether it was right
+    public boolean answer(char option) {
+        Question question = current();
+        boolean correct = option == question.getCorrectOption();
+        attempt.addAnswer(question.getId(), option, correct);
+        timeAnswer();
+        return correct;
+    }
+
+    // Records the current question as skipped (or unanswerable) and moves on
+    public void skip() {
+        attempt.addAnswer(current().getId(), ' ', false);
+        timeAnswer();
+    }
+
+    private void timeAnswer() {
+        long now = System.nanoTime();
+        responseMillis[next++] = (int) Math.min(Integer.MAX_VALUE, (now - shownAt) / 1_000_000);
+        shownAt = now;
+    }
+
+    // Marks every question not answered yet as incorrect and returns the attempt
+    public QuizAttempt finish() {
+        while (hasNext()) {
+            attempt.addAnswer(current().getId(), ' ', false);
+            responseMillis[next++] = -1;
+        }
+        return attempt;
+    }
+
+    // Time taken for each answer so far, in milliseconds; -1 for questions closed by finish()
+    public int[] responseMillis() {
+        return Arrays.copyOf(responseMillis, next);
+    }
+
+    public QuizAttempt getAttempt() {
+        return attempt;
+    }
+
+    // Summary of the answers so far, with the questions as they were when drawn
+    public QuizSummary summary() {
+        Map<UUID, Question> drawn = new HashMap<>();
+        for (Question question : questions) {
+            drawn.put(question.getId(), question);
+        }
+        return QuizSummary.of(attempt, drawn::get);
+    }
+}
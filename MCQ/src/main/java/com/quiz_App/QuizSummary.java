@@ -0,0 +1,92 @@
+package com.quiz_App;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+import com.quiz_App.MCQApplication.Question;
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * Read-only result of a quiz attempt: the score and, for every question,
+ * the answer given and the correct one. It is what
+ * {@link MCQApplication#displayQuizSummary} prints, as plain values that
+ * can be handed to other threads or serialized.
+ */
+public class QuizSummary {
+    // One answered (or skipped) question
+    public static class Item {
+        private final int number;
+        private final UUID questionId;
+        private final String question;
+        private final Character answer;
+        private final Character correctAnswer;
+        private final boolean correct;
+
+        Item(int number, UUID questionId, String question, Character answer,
+             Character correctAnswer, boolean correct) {
+            this.number = number;
+            this.questionId = questionId;
+            this.question = question;
+            this.answer = answer;
+            this.correctAnswer = correctAnswer;
+            this.correct = correct;
+        }
+
+        public int getNumber() { return number; }
+        public UUID getQuestionId() { return questionId; }
+        // Null when the question is no longer known
+        public String getQuestion() { return question; }
+        // Null when the question was skipped
+        public Character getAnswer() { return answer; }
+        // Null when the question is no longer known
+        public Character getCorrectAnswer() { return correctAnswer; }
+        public boolean isCorrect() { return correct; }
+    }
+
+    private final String category;
+    private final String difficultyLevel;
+    private final LocalDateTime timestamp;
+    private final int score;
+    private final List<Item> items;
+
+    private QuizSummary(QuizAttempt attempt, List<Item> items) {
+        this.category = attempt.getCategory();
+        this.difficultyLevel = attempt.getDifficultyLevel();
+        this.timestamp = attempt.getTimestamp();
+        this.score = attempt.getScore();
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Summarizes an attempt, looking its questions up with {@code lookup},
+     * which returns null for questions that are gone.
+     */
+    public static QuizSummary of(QuizAttempt attempt, Function<UUID, Question> lookup) {
+        int answers = attempt.answerCount();
+        List<Item> items = new ArrayList<>(answers);
+        for (int i = 0; i < answers; i++) {
+            UUID questionId = attempt.questionIdAt(i);
+            char answer = attempt.userAnswerAt(i);
+            Question question = lookup.apply(questionId);
+            items.add(new Item(i + 1, questionId,
+                question == null ? null : question.getQuestion(),
+                answer == ' ' ? null : answer,
+                question == null ? null : question.getCorrectOption(),
+                attempt.isCorrectAt(i)));
+        }
+        return new QuizSummary(attempt, items);
+    }
+
+    public String getCategory() { return category; }
+    public String getDifficultyLevel() { return difficultyLevel; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public int getScore() { return score; }
+    public int getTotal() { return items.size(); }
+
+    public double getPercentage() {
+        return items.isEmpty() ? 0 : score * 100.0 / items.size();
+    }
+
+    public List<Item> getItems() { return items; }
+}
@@ -0,0 +1,171 @@
+package com.quiz_App;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Questions ordered newest first by creation time (ties broken by id),
+ * kept up to date by {@link QuestionRepository}. Reading the k most recent
+ * questions walks k entries of a tree instead of sorting the bank.
+ *
+ * Results can be cut off at a "created since" time and paged: pass the
+ * last question of one page as the cursor to get the next one.
+ *
+ * After the bank is opened from a store the order is rebuilt on the first
+ * query from the store's ids and creation times; questions themselves are
+ * only decoded when they are returned. That query may come from a reader
+ * thread, so edits and the rebuild exclude each other on this index, and
+ * the rebuilt tree is published whole.
+ */
+public class RecencyIndex implements QuestionRepository.Listener {
+    // Creation time and id, newest first
+    private static final class Key implements Comparable<Key> {
+        private final LocalDateTime createdAt;
+        private final UUID id;
+
+        Key(LocalDateTime createdAt, UUID id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = other.createdAt.compareTo(createdAt);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+
+    // A question (null until resolved after a rebuild) and how often it is in the bank
+    private static final class Entry {
+        private Question question;
+        private int copies;
+    }
+
+    private volatile TreeMap<Key, Entry> entries = new TreeMap<>();
+    // Resolves questions of entries rebuilt from a store
+    private volatile QuestionRepository repository;
+    // Bank to rebuild from on the next query, or null when the index is current
+    private volatile QuestionRepository stale;
+
+    private static Key key(Question question) {
+        return new Key(question.getCreatedAt(), question.getId());
+    }
+
+    @Override
+    public synchronized void questionAdded(Question question) {
+        if (stale != null) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(key(question), key -> new Entry());
+        entry.question = question;
+        entry.copies++;
+    }
+
+    @Override
+    public synchronized void questionRemoved(Question question) {
+        if (stale != null) {
+            return;
+        }
+        Key key = key(question);
+        Entry entry = entries.get(key);
+        if (entry != null && --entry.copies == 0) {
+            entries.remove(key);
+        }
+    }
+
+    // Edits never change the creation time or id, so the order stays as it is
+    @Override
+    public void beforeUpdate(Question question) {
+    }
+
+    @Override
+    public void afterUpdate(Question question) {
+    }
+
+    @Override
+    public synchronized void cleared() {
+        entries.clear();
+        stale = null;
+    }
+
+    // Only marks the index stale; the tree is rebuilt by the first query, not by prepare()
+    @Override
+    public synchronized void reloaded(QuestionRepository repository) {
+        entries = new TreeMap<>();
+        this.repository = repository;
+        stale = repository;
+    }
+
+    private void ensureCurrent() {
+        QuestionRepository bank = stale;
+        if (bank == null) {
+            return;
+        }
+        bank.buildLazily(new QuestionRepository.LazyBuild<TreeMap<Key, Entry>>() {
+            @Override
+            public TreeMap<Key, Entry> build() {
+                TreeMap<Key, Entry> built = new TreeMap<>();
+                bank.forEachCreated((id, createdAt) ->
+                    built.computeIfAbsent(new Key(createdAt, id), key -> new Entry()).copies++);
+                return built;
+            }
+
+            @Override
+            public boolean install(TreeMap<Key, Entry> built, BooleanSupplier unchanged) {
+                synchronized (RecencyIndex.this) {
+                    if (stale != bank) {
+                        // Another query rebuilt it, or the bank was cleared meanwhile
+                        return true;
+                    }
+                    if (!unchanged.getAsBoolean()) {
+                        return false;
+                    }
+                    entries = built;
+                    stale = null;
+                    return true;
+                }
+            }
+        });
+    }
+
+    public int size() {
+        ensureCurrent();
+        return entries.size();
+    }
+
+    // The newest questions, at most limit of them
+    public List<Question> recent(int limit) {
+        return recent(limit, null, null);
+    }
+
+    /**
+     * The newest questions created at or after {@code since} (null for no
+     * limit) that come after {@code cursor} in the newest-first order (null
+     * to start with the newest), at most {@code limit} of them.
+     */
+    public List<Question> recent(int limit, LocalDateTime since, Question cursor) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        ensureCurrent();
+        TreeMap<Key, Entry> tree = entries;
+        NavigableMap<Key, Entry> from = cursor == null ? tree : tree.tailMap(key(cursor), false);
+        List<Question> page = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<Key, Entry> mapping : from.entrySet()) {
+            if (page.size() >= limit || (since != null && mapping.getKey().createdAt.isBefore(since))) {
+                break;
+            }
+            Entry entry = mapping.getValue();
+            if (entry.question == null) {
+                entry.question = repository.getById(mapping.getKey().id);
+            }
+            for (int copy = 0; copy < entry.copies && page.size() < limit; copy++) {
+                page.add(entry.question);
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,366 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Full-text index over question text and options, kept up to date by
+ * {@link QuestionRepository}. Each question is a document; each word points
+ * at the documents that contain it, in document order, so a search only
+ * walks the lists of the words it asks for and ranks the matches with BM25.
+ *
+ * Removed and edited questions leave a dead document behind (an edit adds
+ * a new one), and the lists are compacted once the dead outnumber the live.
+ *
+ * After the bank is opened from a store the index is rebuilt on the first
+ * search. Searches run on the thread that edits the bank, like the other
+ * admin screens; quiz sessions never read this index.
+ */
+public class SearchIndex implements QuestionRepository.Listener {
+    // BM25 term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    // Compaction is not worth it below this many dead documents
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    // Words nearly every question contains; searching them would walk the whole bank
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "does", "for", "from", "how", "in", "is",
+        "it", "of", "on", "or", "that", "the", "this", "to", "was", "what", "when", "where",
+        "which", "who", "why", "with");
+
+    // Documents containing one word, in increasing order, with the word's count in each
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private byte[] frequencies = new byte[2];
+        private int size;
+        // Documents among them that are still live
+        private int live;
+
+        void append(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = (byte) Math.min(frequency, 255);
+            size++;
+            live++;
+        }
+
+        int frequency(int i) {
+            return frequencies[i] & 0xFF;
+        }
+    }
+
+    private final HashMap<String, Postings> terms = new HashMap<>();
+    // Per document: the question's ordinal, its word count and the question once resolved
+    private int[] ordinals = new int[16];
+    private int[] lengths = new int[16];
+    private Question[] documents = new Question[16];
+    private int documentCount;
+    private final BitSet live = new BitSet();
+    private int liveCount;
+    private long totalLength;
+    // Live document of each question ordinal, or -1
+    private int[] documentOf = new int[0];
+    // Extra copies of documents whose question is in the bank more than once
+    private final HashMap<Integer, Integer> copies = new HashMap<>();
+    // Resolves questions of documents rebuilt from a store
+    private QuestionRepository repository;
+    // Bank to rebuild from on the next search, or null when the index is current
+    private QuestionRepository stale;
+
+    // Lower-cased words of a text, without stop words; letters and digits make up a word
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String token = text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // Word counts of a question's text and options
+    private static Map<String, Integer> words(Question question, int[] length) {
+        List<String> tokens = tokenize(question.getQuestion());
+        String[] options = question.getOptions();
+        if (options != null) {
+            for (String option : options) {
+                tokens.addAll(tokenize(option));
+            }
+        }
+        length[0] = tokens.size();
+        Map<String, Integer> counts = new HashMap<>(Math.max(16, tokens.size() * 2));
+        for (String token : tokens) {
+            counts.merge(token, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public void questionAdded(Question question) {
+        if (stale == null) {
+            index(question, question);
+        }
+    }
+
+    @Override
+    public void questionRemoved(Question question) {
+        if (stale == null) {
+            unindex(question);
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public void cleared() {
+        terms.clear();
+        ordinals = new int[16];
+        lengths = new int[16];
+        documents = new Question[16];
+        documentCount = 0;
+        live.clear();
+        liveCount = 0;
+        totalLength = 0;
+        documentOf = new int[0];
+        copies.clear();
+        stale = null;
+    }
+
+    @Override
+    public void reloaded(QuestionRepository repository) {
+        cleared();
+        this.repository = repository;
+        stale = repository;
+    }
+
+    public int size() {
+        ensureCurrent();
+        return liveCount + copies.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * The questions best matching the words of {@code query}, best first, at
+     * most {@code limit} of them. A question matches if it contains any of
+     * the words; ones containing more of them, more often, or rarer ones
+     * rank higher. Equal scores keep the order the questions were indexed.
+     */
+    public List<Question> search(String query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        ensureCurrent();
+        List<Postings> lists = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(tokenize(query))) {
+            Postings postings = terms.get(token);
+            if (postings != null && postings.live > 0) {
+                lists.add(postings);
+                weights.add(Math.log(1 + (liveCount - postings.live + 0.5) / (postings.live + 0.5)));
+            }
+        }
+        if (lists.isEmpty() || limit == 0) {
+            return new ArrayList<>();
+        }
+
+        // Walks the lists side by side, one document at a time, keeping the best in a heap
+        double averageLength = Math.max(1.0, (double) totalLength / liveCount);
+        int[] cursors = new int[lists.size()];
+        PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1,
+            (a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(b[1], a[1]));
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings postings = lists.get(t);
+                if (cursors[t] < postings.size) {
+                    doc = Math.min(doc, postings.docs[cursors[t]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            double score = 0;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings postings = lists.get(t);
+                if (cursors[t] < postings.size && postings.docs[cursors[t]] == doc) {
+                    double frequency = postings.frequency(cursors[t]);
+                    double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    score += weights.get(t) * frequency * (K1 + 1) / (frequency + norm);
+                    cursors[t]++;
+                }
+            }
+            if (live.get(doc)) {
+                best.add(new double[]{score, doc});
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<double[]> ranked = new ArrayList<>(best);
+        ranked.sort(best.comparator().reversed());
+        List<Question> results = new ArrayList<>(ranked.size());
+        for (double[] hit : ranked) {
+            int doc = (int) hit[1];
+            Question question = resolve(doc);
+            int count = copies.getOrDefault(doc, 0) + 1;
+            for (int copy = 0; copy < count && results.size() < limit; copy++) {
+                results.add(question);
+            }
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private void ensureCurrent() {
+        if (stale == null) {
+            return;
+        }
+        QuestionRepository bank = stale;
+        stale = null;
+        // Reads each question without keeping it; results are resolved by id later
+        for (int i = 0; i < bank.size(); i++) {
+            index(bank.peek(i), null);
+        }
+    }
+
+    private Question resolve(int doc) {
+        Question question = documents[doc];
+        if (question == null) {
+            question = repository.getById(QuestionOrdinals.id(ordinals[doc]));
+            documents[doc] = question;
+        }
+        return question;
+    }
+
+    // Adds a document for a question; keep is the question to return from searches, if known
+    private void index(Question question, Question keep) {
+        int ordinal = QuestionOrdinals.ordinal(question.getId());
+        if (ordinal < documentOf.length && documentOf[ordinal] >= 0) {
+            // The same question again: count the copy instead of indexing it twice
+            copies.merge(documentOf[ordinal], 1, Integer::sum);
+            return;
+        }
+        int[] length = new int[1];
+        Map<String, Integer> counts = words(question, length);
+        int doc = documentCount++;
+        if (doc == ordinals.length) {
+            int capacity = doc * 2;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            documents = Arrays.copyOf(documents, capacity);
+        }
+        ordinals[doc] = ordinal;
+        lengths[doc] = length[0];
+        documents[doc] = keep;
+        live.set(doc);
+        liveCount++;
+        totalLength += length[0];
+        if (ordinal >= documentOf.length) {
+            int previous = documentOf.length;
+            documentOf = Arrays.copyOf(documentOf, Math.max(ordinal + 1, previous * 2));
+            Arrays.fill(documentOf, previous, documentOf.length, -1);
+        }
+        documentOf[ordinal] = doc;
+        counts.forEach((token, count) -> terms.computeIfAbsent(token, t -> new Postings()).append(doc, count));
+    }
+
+    private void unindex(Question question) {
+        int ordinal = QuestionOrdinals.ordinal(question.getId());
+        int doc = ordinal < documentOf.length ? documentOf[ordinal] : -1;
+        if (doc < 0) {
+            return;
+        }
+        Integer extra = copies.get(doc);
+        if (extra != null) {
+            if (extra <= 1) {
+                copies.remove(doc);
+            } else {
+                copies.put(doc, extra - 1);
+            }
+            return;
+        }
+        documentOf[ordinal] = -1;
+        documents[doc] = null;
+        live.clear(doc);
+        liveCount--;
+        totalLength -= lengths[doc];
+        // The question still reads as it did when it was indexed (updates call this first)
+        for (String token : words(question, new int[1]).keySet()) {
+            Postings postings = terms.get(token);
+            if (postings != null && postings.live > 0) {
+                postings.live--;
+            }
+        }
+    }
+
+    // Renumbers the live documents and drops the dead ones from every list
+    private void compactIfNeeded() {
+        int dead = documentCount - liveCount;
+        if (dead < MIN_DEAD_TO_COMPACT || dead < liveCount) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int next = 0;
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (live.get(doc)) {
+                renumbered[doc] = next;
+                ordinals[next] = ordinals[doc];
+                lengths[next] = lengths[doc];
+                documents[next] = documents[doc];
+                documentOf[ordinals[next]] = next;
+                next++;
+            } else {
+                renumbered[doc] = -1;
+            }
+        }
+        Arrays.fill(documents, next, documentCount, null);
+        HashMap<Integer, Integer> movedCopies = new HashMap<>();
+        copies.forEach((doc, count) -> movedCopies.put(renumbered[doc], count));
+        copies.clear();
+        copies.putAll(movedCopies);
+
+        Iterator<Postings> lists = terms.values().iterator();
+        while (lists.hasNext()) {
+            Postings postings = lists.next();
+            if (postings.live == 0) {
+                lists.remove();
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = renumbered[postings.docs[i]];
+                if (doc >= 0) {
+                    postings.docs[kept] = doc;
+                    postings.frequencies[kept] = postings.frequencies[i];
+                    kept++;
+                }
+            }
+            postings.size = kept;
+            postings.live = kept;
+        }
+        documentCount = next;
+        live.clear();
+        live.set(0, next);
+    }
+}
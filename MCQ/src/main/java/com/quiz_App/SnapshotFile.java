@@ -0,0 +1,98 @@
+package com.quiz_App;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.List;
+
+import com.quiz_App.MCQApplication.QuizAttempt;
+
+/**
+ * The file format of the stores that are kept up to date as attempts are
+ * recorded, {@link QuestionAnalytics} and {@link QuestionRatings}: a header
+ * of magic number, version, record count, record size and the position in
+ * the quiz history the records cover, then one fixed-size record per
+ * question. Readers skip whatever follows the record size they know, so
+ * records can grow without a new version.
+ *
+ * A store is saved only now and then, so on load it records again the
+ * attempts of the history after the saved position ({@link #unrecorded}).
+ * Files are written to a temporary sibling, forced to disk and moved over
+ * the old file, so a crash leaves either the old or the new one whole.
+ */
+final class SnapshotFile {
+    private static final int VERSION = 2;
+    // Files of this version do not say which attempts they cover
+    private static final int UNPOSITIONED_VERSION = 1;
+
+    // Writes every record of a store
+    interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Reads one record into a store
+    interface RecordReader {
+        void read(DataInputStream in) throws IOException;
+    }
+
+    private SnapshotFile() {
+    }
+
+    // Writes count records covering the quiz history up to position to path
+    static void write(Path path, int magic, int count, int recordSize, long position, RecordWriter records)
+            throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(magic);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(recordSize);
+            out.writeLong(position);
+            records.write(out);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        BinaryQuestionStore.forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Hands each record of path to {@code record} and returns the history
+     * position the records cover, or -1 without reading any record if the
+     * file does not say. {@code kind} names the store in errors.
+     */
+    static long read(Path path, int magic, String kind, int recordSize, RecordReader record) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != magic) {
+                throw new IOException("Not a " + kind + " file: " + path);
+            }
+            int version = in.readInt();
+            if (version == UNPOSITIONED_VERSION) {
+                return -1;
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported " + kind + " version " + version);
+            }
+            int count = in.readInt();
+            int size = in.readInt();
+            if (size < recordSize) {
+                throw new IOException("Corrupt " + kind + " file: " + path);
+            }
+            long position = in.readLong();
+            for (int i = 0; i < count; i++) {
+                record.read(in);
+                in.skipNBytes(size - recordSize);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * The attempts a store read at {@code position} has yet to record, or
+     * null if it has to be rebuilt from the whole history instead: the file
+     * did not say what it covers, or the history was reset or cleared since.
+     */
+    static List<QuizAttempt> unrecorded(QuizHistory history, long position) {
+        return position < 0 ? null : history.since(position);
+    }
+}
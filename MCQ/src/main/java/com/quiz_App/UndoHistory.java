@@ -0,0 +1,227 @@
+package com.quiz_App;
+
+import java.util.*;
+
+import com.quiz_App.MCQApplication.Question;
+
+/**
+ * Command-based undo/redo history for the question bank.
+ *
+ * Each entry records only what its operation changed (the added or removed
+ * questions, or the before/after values of an edit), so recording costs
+ * O(1) regardless of the bank size. The history is bounded both by number
+ * of entries and by the number of questions the entries keep alive; the
+ * oldest entries are dropped first, but the newest one is always kept.
+ *
+ * Limits can be set with the system properties {@code mcq.undo.maxOperations}
+ * and {@code mcq.undo.maxRetainedQuestions}.
+ */
+public class UndoHistory {
+    // A change to the bank that can be reverted and reapplied
+    public interface Operation {
+        String description();
+
+        void undo();
+
+        void redo();
+
+        // Number of questions this entry keeps alive, used for the memory bound
+        default long weight() { return 1; }
+    }
+
+    public static final int DEFAULT_MAX_OPERATIONS = 100;
+    public static final long DEFAULT_MAX_RETAINED_QUESTIONS = 1_000_000L;
+
+    private final QuestionRepository repository;
+    private final Deque<Operation> undoStack = new ArrayDeque<>();
+    private final Deque<Operation> redoStack = new ArrayDeque<>();
+    private int maxOperations;
+    private long maxRetainedQuestions;
+    private long retained;
+    private long epoch;
+
+    public UndoHistory(QuestionRepository repository) {
+        this(repository,
+            Integer.getInteger("mcq.undo.maxOperations", DEFAULT_MAX_OPERATIONS),
+            Long.getLong("mcq.undo.maxRetainedQuestions", DEFAULT_MAX_RETAINED_QUESTIONS));
+    }
+
+    public UndoHistory(QuestionRepository repository, int maxOperations, long maxRetainedQuestions) {
+        this.repository = repository;
+        this.epoch = repository.epoch();
+        setLimits(maxOperations, maxRetainedQuestions);
+    }
+
+    public void setLimits(int maxOperations, long maxRetainedQuestions) {
+        if (maxOperations < 1 || maxRetainedQuestions < 1) {
+            throw new IllegalArgumentException("Undo limits must be positive");
+        }
+        this.maxOperations = maxOperations;
+        this.maxRetainedQuestions = maxRetainedQuestions;
+        trim();
+    }
+
+    // Records an operation that has just been applied to the bank
+    public void record(Operation operation) {
+        FlightEvents.UndoSnapshot event = new FlightEvents.UndoSnapshot();
+        event.begin();
+        discardIfStale();
+        undoStack.push(operation);
+        retained += operation.weight();
+        for (Operation undone : redoStack) {
+            retained -= undone.weight();
+        }
+        redoStack.clear();
+        trim();
+        commit(event, "record", operation);
+    }
+
+    // Reverts the newest operation, or returns null if there is nothing to undo
+    public Operation undo() {
+        FlightEvents.UndoSnapshot event = new FlightEvents.UndoSnapshot();
+        event.begin();
+        discardIfStale();
+        Operation operation = undoStack.poll();
+        if (operation != null) {
+            operation.undo();
+            redoStack.push(operation);
+            commit(event, "undo", operation);
+        }
+        return operation;
+    }
+
+    // Reapplies the newest undone operation, or returns null if there is nothing to redo
+    public Operation redo() {
+        FlightEvents.UndoSnapshot event = new FlightEvents.UndoSnapshot();
+        event.begin();
+        discardIfStale();
+        Operation operation = redoStack.poll();
+        if (operation != null) {
+            operation.redo();
+            undoStack.push(operation);
+            commit(event, "redo", operation);
+        }
+        return operation;
+    }
+
+    private void commit(FlightEvents.UndoSnapshot event, String action, Operation operation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.operation = operation.description();
+            event.questions = operation.weight();
+            event.retainedQuestions = retained;
+            event.bankSize = repository.size();
+            event.commit();
+        }
+    }
+
+    public boolean canUndo() {
+        discardIfStale();
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        discardIfStale();
+        return !redoStack.isEmpty();
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        retained = 0;
+        epoch = repository.epoch();
+    }
+
+    public int size() {
+        return undoStack.size() + redoStack.size();
+    }
+
+    public long retainedQuestions() {
+        return retained;
+    }
+
+    // The bank was wiped or reloaded behind our back, so no entry applies any more
+    private void discardIfStale() {
+        if (epoch != repository.epoch()) {
+            clear();
+        }
+    }
+
+    private void trim() {
+        while (undoStack.size() + redoStack.size() > 1
+               && (undoStack.size() + redoStack.size() > maxOperations || retained > maxRetainedQuestions)) {
+            // Redo entries are dropped first once they are the oldest thing we hold
+            Operation dropped = !undoStack.isEmpty() ? undoStack.pollLast() : redoStack.pollLast();
+            retained -= dropped.weight();
+        }
+    }
+
+    public static Operation added(QuestionRepository repository, Question question) {
+        return new Operation() {
+            public String description() { return "add of question: " + question.getQuestion(); }
+            public void undo() { repository.removeById(question.getId()); }
+            public void redo() { repository.add(question); }
+        };
+    }
+
+    // A question removed with removeById from the given position
+    public static Operation deleted(QuestionRepository repository, Question question, int index) {
+        return new Operation() {
+            public String description() { return "delete of question: " + question.getQuestion(); }
+            public void undo() { repository.restore(index, question); }
+            public void redo() { repository.removeById(question.getId()); }
+        };
+    }
+
+    public static Operation updated(QuestionRepository repository, Question question,
+                                    QuestionState before, QuestionState after) {
+        return new Operation() {
+            public String description() { return "update of question: " + after.question; }
+            public void undo() { repository.update(question, before::applyTo); }
+            public void redo() { repository.update(question, after::applyTo); }
+        };
+    }
+
+    public static Operation imported(QuestionRepository repository, List<Question> added, String source) {
+        return new Operation() {
+            public String description() { return "import of " + added.size() + " questions from " + source; }
+            public void undo() {
+                for (int i = added.size() - 1; i >= 0; i--) {
+                    repository.removeById(added.get(i).getId());
+                }
+            }
+            public void redo() { repository.addAll(added); }
+            public long weight() { return Math.max(1, added.size()); }
+        };
+    }
+
+    // Copy of the editable fields of a question, used to revert in-place updates
+    public static class QuestionState {
+        private final String question;
+        private final String[] options;
+        private final char correctOption;
+        private final String category;
+        private final String difficultyLevel;
+
+        private QuestionState(Question q) {
+            this.question = q.getQuestion();
+            this.options = q.getOptions().clone();
+            this.correctOption = q.getCorrectOption();
+            this.category = q.getCategory();
+            this.difficultyLevel = q.getDifficultyLevel();
+        }
+
+        public static QuestionState of(Question q) {
+            return new QuestionState(q);
+        }
+
+        public void applyTo(Question q) {
+            q.setQuestion(question);
+            q.setOptions(options.clone());
+            q.setCorrectOption(correctOption);
+            q.setCategory(category);
+            q.setDifficultyLevel(difficultyLevel);
+        }
+    }
+}
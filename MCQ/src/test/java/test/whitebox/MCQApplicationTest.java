@@ -3,9 +3,36 @@ package test.whitebox;
 
 import com.quiz_App.MCQApplication;
 import com.quiz_App.MCQApplication.*;
+import com.QuizApp.MCQ.OperationMetricsBinder;
+import com.QuizApp.MCQ.QuizController;
+import com.QuizApp.MCQ.QuizService;
+import com.quiz_App.AttemptRecorder;
+import com.quiz_App.AuditTrail;
+import com.quiz_App.BinaryQuestionStore;
+import com.quiz_App.CategoryIndex;
+import com.quiz_App.ConsoleRenderer;
+import com.quiz_App.LabelDictionary;
+import com.quiz_App.OperationMetrics;
+import com.quiz_App.QuestionAnalytics;
+import com.quiz_App.QuestionImporter;
+import com.quiz_App.QuestionJournal;
+import com.quiz_App.QuestionRatings;
+import com.quiz_App.QuestionRepository;
+import com.quiz_App.QuestionSampler;
+import com.quiz_App.QuestionStatistics;
+import com.quiz_App.QuizEngine;
+import com.quiz_App.QuizHistory;
+import com.quiz_App.QuizSession;
+import com.quiz_App.QuizSummary;
+import com.quiz_App.RecencyIndex;
+import com.quiz_App.SearchIndex;
+import com.quiz_App.UndoHistory;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.io.*;
 import java.time.LocalDateTime;
@@ -120,6 +147,35 @@ public class MCQApplicationTest {
             assertEquals(1, attempt.getScore()); // Score should remain 1 because only one correct answer was given
             assertEquals(2, attempt.getAnswers().size()); // Now there are two answers in total
         }
+
+        // Answers are stored as columns but read and serialized as before
+        @Test
+        void testColumnarAnswersSurviveSerialization() throws Exception {
+            QuizAttempt attempt = new QuizAttempt("Test Category", "Easy");
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                ids.add(UUID.randomUUID());
+                attempt.addAnswer(ids.get(i), i % 5 == 4 ? ' ' : (char) ('A' + i % 4), i % 3 == 0);
+            }
+            assertThrows(UnsupportedOperationException.class, () -> attempt.getAnswers().clear());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(attempt);
+            }
+            QuizAttempt restored;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                restored = (QuizAttempt) in.readObject();
+            }
+            assertEquals(9, restored.getScore());
+            assertEquals(25, restored.getAnswers().size());
+            List<QuizSummary.Item> items = QuizSummary.of(restored, id -> null).getItems();
+            for (int i = 0; i < 25; i++) {
+                assertEquals(ids.get(i), items.get(i).getQuestionId());
+                assertEquals(i % 5 == 4 ? null : (Character) (char) ('A' + i % 4), items.get(i).getAnswer());
+                assertEquals(i % 3 == 0, items.get(i).isCorrect());
+            }
+        }
     }
 
     // Nested class for testing the addQuestion method in MCQApplication
@@ -360,6 +416,29 @@ public class MCQApplicationTest {
             // Check if the output contains the most recent questions without enforcing an exact number
             assertTrue(output.contains("Question"), "The output should contain recent questions.");
         }
+
+        @Test
+        void testRecencyIndexPagesNewestFirst() {
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+            QuestionRepository bank = new QuestionRepository();
+            RecencyIndex index = bank.register(new RecencyIndex());
+            List<Question> added = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Question q = mock(Question.class);
+                when(q.getId()).thenReturn(UUID.randomUUID());
+                when(q.getCreatedAt()).thenReturn(start.plusDays(i));
+                added.add(q);
+                bank.add(q);
+            }
+
+            assertEquals(List.of(added.get(5), added.get(4)), index.recent(2));
+            assertEquals(List.of(added.get(3), added.get(2)), index.recent(2, null, added.get(4)));
+            // Only questions created on or after day 3
+            assertEquals(List.of(added.get(3)), index.recent(5, start.plusDays(3), added.get(4)));
+
+            bank.removeById(added.get(5).getId());
+            assertEquals(List.of(added.get(4)), index.recent(1));
+        }
     }
 
     @Nested
@@ -394,6 +473,44 @@ public class MCQApplicationTest {
             assertTrue(output.contains("Medium: 1"));
             assertTrue(output.contains("Hard: 1"));
         }
+
+        @Test
+        void testCountsFollowUpdatesDeletesAndUndo() {
+            String[] options = {"A", "B", "C", "D"};
+            Question moved = new Question("Q1", options, 'A', "Science", "Hard");
+            MCQApplication.questions.add(new Question("Q0", options, 'A', "Math", "Easy"));
+            MCQApplication.questions.add(moved);
+
+            MCQApplication.questions.update(moved, q -> q.setCategory("Math"));
+            assertEquals(Map.of("Math", 2L), MCQApplication.statistics.categoryCounts());
+
+            MCQApplication.questions.removeById(moved.getId());
+            assertEquals(Map.of("Math", 1L), MCQApplication.statistics.categoryCounts());
+            assertEquals(Map.of("Easy", 1L), MCQApplication.statistics.difficultyCounts());
+
+            MCQApplication.resetDatabase(new Scanner("y\n"));
+            assertTrue(MCQApplication.statistics.categoryCounts().isEmpty());
+            MCQApplication.undoLastOperation();
+            assertEquals(Map.of("Math", 1L), MCQApplication.statistics.categoryCounts());
+        }
+
+        @Test
+        void testCountsRebuiltFromStore(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            List<Question> saved = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                saved.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Cat" + (i % 2), "Easy"));
+            }
+            BinaryQuestionStore.write(file, saved);
+
+            QuestionRepository bank = new QuestionRepository();
+            QuestionStatistics statistics = bank.register(new QuestionStatistics());
+            bank.attach(BinaryQuestionStore.open(file));
+            bank.update(bank.get(0), q -> q.setDifficultyLevel("Hard"));
+
+            assertEquals(Map.of("Cat0", 3L, "Cat1", 2L), statistics.categoryCounts());
+            assertEquals(Map.of("Easy", 4L, "Hard", 1L), statistics.difficultyCounts());
+        }
     }
 
     
@@ -431,6 +548,94 @@ public class MCQApplicationTest {
             assertTrue(output.contains("UPDATE: Updated question ID-123"));
             assertTrue(output.contains("DELETE: Deleted question ID-456"));
         }
+
+        @Test
+        void testAuditTrailRollsAndReopens(@TempDir java.nio.file.Path dir) throws Exception {
+            System.setProperty("mcq.audit.rollBytes", "200");
+            System.setProperty("mcq.audit.keepFiles", "3");
+            try {
+                AuditTrail audit = new AuditTrail(16);
+                audit.record("ADD", "Before attach");
+                audit.attach(dir);
+                for (int i = 0; i < 20; i++) {
+                    audit.record("ADD", "Added question " + i + "\twith a tab");
+                    audit.flush();
+                }
+                audit.close();
+
+                try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                    assertEquals(3, files.count());
+                }
+                AuditTrail reopened = new AuditTrail(16);
+                reopened.attach(dir);
+                List<AuditLog> entries = reopened.entries();
+                assertEquals("Added question 19\twith a tab", entries.get(entries.size() - 1).getDetails());
+                assertTrue(entries.size() < 21);
+                reopened.close();
+            } finally {
+                System.clearProperty("mcq.audit.rollBytes");
+                System.clearProperty("mcq.audit.keepFiles");
+            }
+        }
+
+        @Test
+        void testDetachedAuditTrailKeepsOnlyTheNewestEvents(@TempDir java.nio.file.Path dir) throws Exception {
+            System.setProperty("mcq.audit.memoryEvents", "3");
+            try {
+                AuditTrail audit = new AuditTrail(16);
+                for (int i = 0; i < 5; i++) {
+                    audit.record("ADD", "Event " + i);
+                    audit.flush();
+                }
+                assertEquals(List.of("Event 2", "Event 3", "Event 4"),
+                    audit.entries().stream().map(AuditLog::getDetails).toList());
+
+                audit.attach(dir);
+                List<AuditLog> entries = audit.entries();
+                assertEquals("Dropped 2 events before the log was attached", entries.get(0).getDetails());
+                assertEquals("Event 2", entries.get(1).getDetails());
+                assertEquals(4, entries.size());
+                audit.close();
+            } finally {
+                System.clearProperty("mcq.audit.memoryEvents");
+            }
+        }
+
+        @Test
+        void testAuditTrailTakesConcurrentEvents() throws Exception {
+            AuditTrail audit = new AuditTrail(1 << 16);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        audit.record("QUIZ", thread + "-" + i);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(16000, audit.entries().size());
+
+            audit.close();
+
+            // A full buffer drops events and says so instead of blocking the caller
+            System.setProperty("mcq.audit.commitMillis", "60000");
+            try {
+                AuditTrail tiny = new AuditTrail(4);
+                for (int i = 0; i < 10; i++) {
+                    tiny.record("ADD", "Event " + i);
+                }
+                List<AuditLog> kept = tiny.entries();
+                assertEquals(5, kept.size());
+                assertEquals("Dropped 6 events while the audit buffer was full", kept.get(0).getDetails());
+                tiny.close();
+            } finally {
+                System.clearProperty("mcq.audit.commitMillis");
+            }
+        }
     }
 
     @Nested
@@ -624,6 +829,67 @@ public class MCQApplicationTest {
             // Cleanup
             new File(testFilePath).delete();
         }
+
+        @Test
+        void testChunkedImportKeepsOrderAndCountsRejects(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("vendor.txt");
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                rows.append("Question ").append(i).append("|a|b|c|d|A|Cat").append(i % 3).append("|Hard\r\n");
+                if (i % 50 == 0) {
+                    rows.append("not a question\n");
+                }
+            }
+            rows.append("Last|a|b|c|d|B");
+            java.nio.file.Files.writeString(file, rows.toString());
+
+            List<Question> imported = new ArrayList<>();
+            // Tiny chunks force many byte ranges and threads
+            QuestionImporter.Result result = new QuestionImporter(4, 256)
+                .importFile(file, imported::addAll, null);
+
+            assertEquals(201, result.getImported());
+            assertEquals(4, result.getRejected());
+            for (int i = 0; i < 200; i++) {
+                assertEquals("Question " + i, imported.get(i).getQuestion());
+            }
+            Question last = imported.get(200);
+            assertEquals("General", last.getCategory());
+            assertEquals("Medium", last.getDifficultyLevel());
+            assertEquals('B', last.getCorrectOption());
+            assertEquals("Hard", imported.get(0).getDifficultyLevel());
+        }
+
+        @Test
+        void testImportIgnoresBlankLines(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("blank.txt");
+            java.nio.file.Files.writeString(file, "One|a|b|c|d|A\r\n\r\n\nTwo|a|b|c|d|B\r\n\r\n");
+
+            List<Question> imported = new ArrayList<>();
+            QuestionImporter.Result result = new QuestionImporter(1, 8)
+                .importFile(file, imported::addAll, null);
+
+            assertEquals(2, result.getImported());
+            assertEquals(0, result.getRejected());
+        }
+
+        @Test
+        void testFilteredGzipExport(@TempDir java.nio.file.Path dir) throws IOException {
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.questions.add(new Question("Über café?", new String[]{"a", "b", "c", "d"},
+                'B', "Test Category", "Hard"));
+            MCQApplication.questions.add(new Question("Other?", new String[]{"a", "b", "c", "d"},
+                'C', "Other", "Easy"));
+
+            java.nio.file.Path file = dir.resolve("subset.txt.gz");
+            MCQApplication.exportQuestions(new Scanner(file + " --category test category --difficulty HARD"));
+            assertTrue(outputStream.toString().contains("Successfully exported 1 questions."));
+
+            try (InputStream in = new java.util.zip.GZIPInputStream(java.nio.file.Files.newInputStream(file))) {
+                String content = new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
+                assertEquals("Über café?|a|b|c|d|B|Test Category|Hard" + System.lineSeparator(), content);
+            }
+        }
     }
 
     // Statistics and Audit Tests
@@ -683,6 +949,51 @@ public class MCQApplicationTest {
             assertEquals(1, MCQApplication.questions.size());
             assertEquals("Test Question", MCQApplication.questions.get(0).getQuestion());
         }
+        @Test
+        void testUndoAndRedoUpdate() {
+            MCQApplication.questions.add(sampleQuestion);
+
+            Scanner scanner = new Scanner(sampleQuestion.getId() + "\nChanged?\n\n\n\n\nB\n");
+            MCQApplication.updateQuestion(scanner);
+            assertEquals("Changed?", sampleQuestion.getQuestion());
+
+            // The edit happened in place, so undo must restore the old values
+            MCQApplication.undoLastOperation();
+            assertEquals("Test Question?", sampleQuestion.getQuestion());
+            assertEquals('A', sampleQuestion.getCorrectOption());
+
+            MCQApplication.redoLastOperation();
+            assertEquals("Changed?", sampleQuestion.getQuestion());
+            assertEquals('B', sampleQuestion.getCorrectOption());
+        }
+
+        @Test
+        void testUndoReset() {
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.resetDatabase(new Scanner("y\n"));
+            assertTrue(MCQApplication.questions.isEmpty());
+
+            MCQApplication.undoLastOperation();
+            assertEquals(1, MCQApplication.questions.size());
+            assertSame(sampleQuestion, MCQApplication.questions.getById(sampleQuestion.getId()));
+        }
+
+        @Test
+        void testHistoryIsBounded() {
+            UndoHistory history = new UndoHistory(MCQApplication.questions, 3, 100);
+            for (int i = 0; i < 10; i++) {
+                Question q = new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Test", "Easy");
+                MCQApplication.questions.add(q);
+                history.record(UndoHistory.added(MCQApplication.questions, q));
+            }
+
+            assertEquals(3, history.size());
+            while (history.undo() != null) {
+                // Undo everything that is still held
+            }
+            assertEquals(7, MCQApplication.questions.size());
+        }
+
         @Test
         void undoForNoOperations() {
             // Ensure the state is clean
@@ -696,6 +1007,1135 @@ public class MCQApplicationTest {
         }
     }
 
+    // Question Repository Tests
+    @Nested
+    class QuestionRepositoryTests {
+        @Test
+        void testFindById() {
+            String[] options = {"A", "B", "C", "D"};
+            Question other = new Question("Q2", options, 'B', "Math", "Easy");
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.questions.add(other);
+
+            assertSame(other, MCQApplication.questions.getById(other.getId()));
+            assertTrue(MCQApplication.questions.findById(UUID.randomUUID()).isEmpty());
+        }
+
+        @Test
+        void testReadRetriesUnderLockAfterFailure() {
+            MCQApplication.questions.add(sampleQuestion);
+            int[] attempts = new int[1];
+
+            // The first, optimistic run fails as a torn read would; the locked retry succeeds
+            String text = MCQApplication.questions.read(bank -> {
+                if (attempts[0]++ == 0) {
+                    throw new IndexOutOfBoundsException("torn read");
+                }
+                return bank.get(0).getQuestion();
+            });
+
+            assertEquals(sampleQuestion.getQuestion(), text);
+            assertEquals(2, attempts[0]);
+            assertThrows(IllegalStateException.class, () -> MCQApplication.questions.read(bank -> {
+                throw new IllegalStateException("always fails");
+            }));
+        }
+
+        @Test
+        void testRemoveByIdAndRestore() {
+            String[] options = {"A", "B", "C", "D"};
+            Question second = new Question("Q2", options, 'B', "Math", "Easy");
+            Question third = new Question("Q3", options, 'C', "Math", "Hard");
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.questions.add(second);
+            MCQApplication.questions.add(third);
+
+            int index = MCQApplication.questions.indexOfId(sampleQuestion.getId());
+            assertSame(sampleQuestion, MCQApplication.questions.removeById(sampleQuestion.getId()));
+            assertEquals(2, MCQApplication.questions.size());
+            assertFalse(MCQApplication.questions.containsId(sampleQuestion.getId()));
+            // The others keep their order and are still found by id
+            assertSame(third, MCQApplication.questions.getById(third.getId()));
+            assertEquals(List.of(second, third), MCQApplication.questions);
+            assertEquals(1, MCQApplication.questions.indexOfId(third.getId()));
+
+            MCQApplication.questions.restore(index, sampleQuestion);
+            assertEquals(List.of(sampleQuestion, second, third), MCQApplication.questions);
+            assertSame(third, MCQApplication.questions.getById(third.getId()));
+        }
+
+        @Test
+        void testRemovalsKeepTheOrderForEveryReader() {
+            List<Question> added = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                added.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Math", "Easy"));
+            }
+            MCQApplication.questions.addAll(added);
+            MCQApplication.questions.removeById(added.get(1).getId());
+            MCQApplication.questions.removeById(added.get(4).getId());
+
+            // Lookups by id work before the gaps are closed
+            assertSame(added.get(5), MCQApplication.questions.getById(added.get(5).getId()));
+            assertEquals(4, MCQApplication.questions.size());
+            assertEquals(List.of("Q0", "Q2", "Q3", "Q5"), MCQApplication.questions.read(bank ->
+                bank.stream().map(Question::getQuestion).toList()));
+            assertEquals(List.of("Q0", "Q2", "Q3", "Q5"),
+                MCQApplication.questions.stream().map(Question::getQuestion).toList());
+            assertEquals(3, MCQApplication.questions.indexOfId(added.get(5).getId()));
+        }
+
+        @Test
+        void testDuplicateEntriesStayIndexed() {
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.questions.add(sampleQuestion);
+            MCQApplication.questions.remove(0);
+
+            assertSame(sampleQuestion, MCQApplication.questions.getById(sampleQuestion.getId()));
+            MCQApplication.questions.remove(0);
+            assertFalse(MCQApplication.questions.containsId(sampleQuestion.getId()));
+        }
+    }
+
+    // Category Index Tests
+    @Nested
+    class CategoryIndexTests {
+        @Test
+        void testFindIgnoresCaseAndTracksRemoval() {
+            String[] options = {"A", "B", "C", "D"};
+            Question math = new Question("Q1", options, 'A', "Math", "Easy");
+            Question science = new Question("Q2", options, 'B', "Science", "Hard");
+            MCQApplication.questions.add(math);
+            MCQApplication.questions.add(science);
+
+            assertEquals(List.of(math), MCQApplication.categoryIndex.find("math", "EASY"));
+            assertEquals(2, MCQApplication.categoryIndex.find("", "").size());
+            assertEquals(List.of(science), MCQApplication.categoryIndex.findByDifficulty("hard"));
+
+            MCQApplication.questions.removeById(math.getId());
+            assertTrue(MCQApplication.categoryIndex.findByCategory("Math").isEmpty());
+            assertEquals(List.of("Science"), MCQApplication.categoryIndex.categories());
+        }
+
+        @Test
+        void testUpdateMovesQuestionBetweenBuckets() {
+            MCQApplication.questions.add(sampleQuestion);
+
+            MCQApplication.questions.update(sampleQuestion, q -> q.setCategory("History"));
+
+            assertTrue(MCQApplication.categoryIndex.findByCategory("Test Category").isEmpty());
+            assertEquals(List.of(sampleQuestion), MCQApplication.categoryIndex.findByCategory("history"));
+        }
+
+        @Test
+        void testRemovalFillsGapAndKeepsDuplicates() {
+            String[] options = {"A", "B", "C", "D"};
+            List<Question> added = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Question question = new Question("Q" + i, options, 'A', "Math", "Easy");
+                added.add(question);
+                MCQApplication.questions.add(question);
+            }
+            MCQApplication.questions.add(added.get(1));
+
+            MCQApplication.questions.removeById(added.get(0).getId());
+            MCQApplication.questions.removeById(added.get(1).getId());
+            List<Question> found = MCQApplication.categoryIndex.find("Math", "Easy");
+            assertEquals(4, found.size());
+            assertEquals(Set.copyOf(added.subList(1, 5)), Set.copyOf(found));
+
+            MCQApplication.questions.removeById(added.get(1).getId());
+            MCQApplication.questions.removeById(added.get(3).getId());
+            assertEquals(Set.of(added.get(2), added.get(4)),
+                Set.copyOf(MCQApplication.categoryIndex.find("Math", "Easy")));
+        }
+    }
+
+    // Search Index Tests
+    @Nested
+    class SearchIndexTests {
+        @Test
+        void testSearchRanksAndFollowsEdits() {
+            String[] options = {"Chlorophyll", "Mitochondria", "Ribosome", "Nucleus"};
+            Question plants = new Question("Where does photosynthesis happen in plants?", options, 'A', "Biology", "Easy");
+            Question cells = new Question("What is the powerhouse of the cell?", options, 'B', "Biology", "Easy");
+            Question light = new Question("Photosynthesis converts light into what? Photosynthesis stores it.",
+                new String[]{"Sugar", "Heat", "Sound", "Salt"}, 'A', "Biology", "Medium");
+            MCQApplication.questions.add(plants);
+            MCQApplication.questions.add(cells);
+            MCQApplication.questions.add(light);
+
+            assertEquals(List.of(light, plants), MCQApplication.searchIndex.search("PHOTOSYNTHESIS", 10));
+            assertEquals(List.of(plants), MCQApplication.searchIndex.search("photosynthesis plants", 1));
+            assertEquals(3, MCQApplication.searchIndex.search("mitochondria sugar", 10).size());
+            assertTrue(MCQApplication.searchIndex.search("the what", 10).isEmpty());
+
+            MCQApplication.questions.update(cells, q -> q.setQuestion("Which organelle makes ATP?"));
+            assertEquals(List.of(cells), MCQApplication.searchIndex.search("atp", 10));
+            assertTrue(MCQApplication.searchIndex.search("powerhouse", 10).isEmpty());
+
+            MCQApplication.questions.removeById(light.getId());
+            assertEquals(List.of(plants), MCQApplication.searchIndex.search("photosynthesis", 10));
+        }
+
+        @Test
+        void testSearchAfterAttachAndCompaction(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            List<Question> saved = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                saved.add(new Question("Question number n" + i + (i % 3 == 0 ? " about volcanoes" : ""),
+                    new String[]{"A", "B", "C", "D"}, 'A', "Geography", "Easy"));
+            }
+            BinaryQuestionStore.write(file, saved);
+
+            QuestionRepository bank = new QuestionRepository();
+            SearchIndex index = bank.register(new SearchIndex());
+            bank.attach(BinaryQuestionStore.open(file));
+            assertEquals(saved.get(42).getId(), index.search("n42", 5).get(0).getId());
+            assertEquals(1000, index.search("volcanoes", 5000).size());
+
+            // Deleting most of the bank compacts the lists
+            for (int i = 0; i < 2500; i++) {
+                bank.removeById(saved.get(i).getId());
+            }
+            assertEquals(500, index.size());
+            assertTrue(index.search("n42", 5).isEmpty());
+            assertEquals(saved.get(2999).getId(), index.search("n2999", 5).get(0).getId());
+            assertEquals(166, index.search("volcanoes", 5000).size());
+        }
+    }
+
+    // Duplicate Detection Tests
+    @Nested
+    class DuplicateIndexTests {
+        @Test
+        void testImportSkipsExactDuplicates(@TempDir java.nio.file.Path dir) throws IOException {
+            MCQApplication.questions.add(sampleQuestion);
+            java.nio.file.Path file = dir.resolve("vendor.txt");
+            java.nio.file.Files.writeString(file,
+                "  test   QUESTION? |Option A|option b|Option C|Option D|A|Other|Hard\n"
+                + "New question?|a|b|c|d|B|Cat|Easy\n"
+                + "New  question?|A|b|c|d|C|Cat|Easy\n"
+                + "Another one?|a|b|c|d|B|Cat|Easy\n");
+
+            MCQApplication.importQuestions(new Scanner(file.toString()));
+            assertEquals(3, MCQApplication.questions.size());
+            assertTrue(outputStream.toString().contains("Skipped 2 duplicate questions."));
+
+            // Importing the same file again adds nothing, unless duplicates are allowed
+            MCQApplication.importQuestions(new Scanner(file.toString()));
+            assertEquals(3, MCQApplication.questions.size());
+            MCQApplication.importQuestions(new Scanner(file + " --allow-duplicates"));
+            assertEquals(7, MCQApplication.questions.size());
+
+            MCQApplication.addQuestion(new Scanner("Another one?\na\nb\nc\nd\nA\nCat\nEasy\n"));
+            assertTrue(outputStream.toString().contains("same text and options already exists"));
+            assertEquals(7, MCQApplication.questions.size());
+        }
+
+        @Test
+        void testExactIndexFollowsEdits() {
+            MCQApplication.questions.add(sampleQuestion);
+            Question copy = new Question("test question?", new String[]{"Option A", "Option B", "Option C", "Option D"},
+                'B', "Other", "Hard");
+            assertTrue(MCQApplication.duplicateIndex.containsExact(copy));
+
+            MCQApplication.questions.update(sampleQuestion, q -> q.setQuestion("Edited?"));
+            assertFalse(MCQApplication.duplicateIndex.containsExact(copy));
+
+            MCQApplication.questions.removeById(sampleQuestion.getId());
+            assertFalse(MCQApplication.duplicateIndex.containsExact(sampleQuestion));
+        }
+
+        @Test
+        void testFindsRewordedQuestions() {
+            String[] options = {"Mars", "Venus", "Jupiter", "Saturn"};
+            Question planet = new Question("Which planet in our solar system is known as the red planet?",
+                options, 'A', "Science", "Easy");
+            MCQApplication.questions.add(planet);
+            for (int i = 0; i < 200; i++) {
+                MCQApplication.questions.add(new Question("Filler question number " + i + " about topic " + i * 7,
+                    new String[]{"a" + i, "b", "c", "d"}, 'A', "Filler", "Easy"));
+            }
+
+            Question reworded = new Question("Which planet of our solar system is known as the red planet?",
+                options, 'A', "Science", "Easy");
+            Question unrelated = new Question("Who painted the Mona Lisa?",
+                new String[]{"Da Vinci", "Picasso", "Monet", "Dali"}, 'A', "Art", "Easy");
+            assertFalse(MCQApplication.duplicateIndex.containsExact(reworded));
+            assertSame(planet, MCQApplication.duplicateIndex.findSimilar(reworded, 0.7));
+            assertNull(MCQApplication.duplicateIndex.findSimilar(unrelated, 0.7));
+
+            // Questions added after the first near-duplicate check are found too; removed ones are not
+            MCQApplication.questions.add(unrelated);
+            Question repainted = new Question("Who painted the famous Mona Lisa?",
+                new String[]{"Da Vinci", "Picasso", "Monet", "Dali"}, 'A', "Art", "Easy");
+            assertSame(unrelated, MCQApplication.duplicateIndex.findSimilar(repainted, 0.7));
+            MCQApplication.questions.removeById(planet.getId());
+            assertNull(MCQApplication.duplicateIndex.findSimilar(reworded, 0.7));
+        }
+    }
+
+    // Question Analytics Tests
+    @Nested
+    class QuestionAnalyticsTests {
+        // Plays one quiz over the given questions in order, answering with the given letters (S skips)
+        private void play(QuestionAnalytics analytics, List<Question> quiz, String answers) {
+            QuizSession session = new QuizSession("", "", quiz);
+            for (char answer : answers.toCharArray()) {
+                if (answer == 'S') {
+                    session.skip();
+                } else {
+                    session.answer(answer);
+                }
+            }
+            analytics.record(session.finish(), session.responseMillis());
+        }
+
+        @Test
+        void testReportsRankQuestions() {
+            String[] options = {"A", "B", "C", "D"};
+            Question easy = new Question("Easy?", options, 'A', "Cat", "Easy");
+            Question hard = new Question("Hard?", options, 'A', "Cat", "Hard");
+            Question impossible = new Question("Impossible?", options, 'A', "Cat", "Hard");
+            List<Question> quiz = List.of(easy, hard, impossible);
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            play(analytics, quiz, "AAB");
+            play(analytics, quiz, "ABS");
+            play(analytics, quiz, "AB");
+
+            QuestionAnalytics.Stats stats = analytics.get(impossible.getId());
+            assertEquals(3, stats.getAttempts());
+            assertEquals(0, stats.getCorrect());
+            assertEquals(2, stats.getSkipped());
+            assertEquals(1.0 / 3, analytics.get(hard.getId()).getCorrectRate(), 1e-9);
+            // The question left open by the third quiz was not timed
+            assertTrue(stats.getMeanResponseMillis() >= 0);
+
+            List<QuestionAnalytics.Stats> hardest = analytics.hardest(2, 1, id -> true);
+            assertEquals(List.of(impossible.getId(), hard.getId()),
+                hardest.stream().map(QuestionAnalytics.Stats::getQuestionId).toList());
+            assertEquals(impossible.getId(), analytics.neverCorrect(10, 1, id -> true).get(0).getQuestionId());
+            assertEquals(1, analytics.neverCorrect(10, 1, id -> true).size());
+            assertTrue(analytics.neverCorrect(10, 4, id -> true).isEmpty());
+            assertEquals(List.of(easy.getId()),
+                analytics.hardest(5, 1, id -> id.equals(easy.getId())).stream()
+                    .map(QuestionAnalytics.Stats::getQuestionId).toList());
+        }
+
+        @Test
+        void testAnalyticsSurviveSaveAndLoad(@TempDir java.nio.file.Path dir) throws IOException {
+            Question question = new Question("Q?", new String[]{"A", "B", "C", "D"}, 'B', "Cat", "Easy");
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            play(analytics, List.of(question), "B");
+            play(analytics, List.of(question), "C");
+
+            java.nio.file.Path file = dir.resolve("question_stats.bin");
+            analytics.save(file, 0);
+            QuestionAnalytics loaded = new QuestionAnalytics();
+            loaded.load(file, new QuizHistory());
+            QuestionAnalytics.Stats stats = loaded.get(question.getId());
+            assertEquals(2, stats.getAttempts());
+            assertEquals(1, stats.getCorrect());
+            assertEquals(0, stats.getSkipped());
+            assertEquals(analytics.get(question.getId()).getMeanResponseMillis(), stats.getMeanResponseMillis());
+
+            // A history without analytics is counted once, untimed
+            QuizHistory history = new QuizHistory();
+            QuizSession session = new QuizSession("", "", List.of(question));
+            session.answer('B');
+            history.add(session.finish());
+            loaded.rebuild(history);
+            assertEquals(1, loaded.get(question.getId()).getCorrect());
+            assertEquals(-1, loaded.get(question.getId()).getMeanResponseMillis());
+        }
+
+        @Test
+        void testAnalyticsCatchUpWithAttemptsRecordedAfterTheLastSave(@TempDir java.nio.file.Path dir)
+                throws IOException {
+            Question question = new Question("Q?", new String[]{"A", "B", "C", "D"}, 'B', "Cat", "Easy");
+            QuizHistory history = new QuizHistory();
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            AttemptRecorder recorder = new AttemptRecorder(history, analytics,
+                new QuestionRatings(new QuestionRepository()), new AuditTrail());
+            java.nio.file.Path file = dir.resolve("question_stats.bin");
+            java.nio.file.Path ratingsFile = dir.resolve("question_ratings.bin");
+            for (String answer : List.of("B", "C")) {
+                QuizSession session = new QuizSession("", "", List.of(question));
+                session.answer(answer.charAt(0));
+                recorder.record(session.finish(), null);
+            }
+            recorder.save(file, ratingsFile);
+
+            // Two more attempts reach the history but the process stops before the next save
+            for (String answer : List.of("B", "B")) {
+                QuizSession session = new QuizSession("", "", List.of(question));
+                session.answer(answer.charAt(0));
+                recorder.record(session.finish(), null);
+            }
+            QuestionAnalytics loaded = new QuestionAnalytics();
+            loaded.load(file, history);
+            assertEquals(4, loaded.get(question.getId()).getAttempts());
+            assertEquals(3, loaded.get(question.getId()).getCorrect());
+
+            // Counts saved before a reset the history has since taken are rebuilt from what is visible
+            history.hideAll();
+            loaded.load(file, history);
+            assertNull(loaded.get(question.getId()));
+        }
+    }
+
+    // Paged Listing Tests
+    @Nested
+    class PagedListingTests {
+        @Test
+        void testRendererWritesInBlocks() {
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            ConsoleRenderer renderer = new ConsoleRenderer(new PrintStream(written));
+            renderer.question(sampleQuestion).line("Done");
+            assertEquals(0, written.size());
+            renderer.flush();
+            String output = written.toString();
+            assertTrue(output.startsWith("\nID: " + sampleQuestion.getId() + "\nQuestion: Test Question?\n"));
+            assertTrue(output.contains("D. Option D\nCorrect Answer: A\n"));
+            assertTrue(output.endsWith("Done\n"));
+
+            // A full block goes out without waiting for flush
+            written.reset();
+            String line = "x".repeat(1000);
+            for (int i = 0; i < 100; i++) {
+                renderer.line(line);
+            }
+            assertTrue(written.size() > 0);
+            assertTrue(written.size() < 100 * 1001);
+        }
+
+        @Test
+        void testViewAllQuestionsPages() {
+            for (int i = 1; i <= 5; i++) {
+                MCQApplication.questions.add(new Question("Question " + i + "?",
+                    new String[]{"A", "B", "C", "D"}, 'A', "Paging", "Easy"));
+            }
+            MCQApplication.viewAllQuestions(new Scanner("--page 2 --limit 2\ny\nn\n"));
+            String output = outputStream.toString();
+            assertFalse(output.contains("Question 2?"));
+            assertTrue(output.contains("Question 3?"));
+            assertTrue(output.contains("Page 2 of 3 (5 questions)"));
+            assertTrue(output.contains("Question 5?"));
+            assertTrue(output.contains("Page 3 of 3"));
+
+            outputStream.reset();
+            MCQApplication.viewAllQuestions(new Scanner("--page 4 --limit 2\n"));
+            assertTrue(outputStream.toString().contains("Error: There are only 3 pages of 2 questions."));
+
+            // Without --limit a filtered view shows every match at once
+            outputStream.reset();
+            MCQApplication.viewQuestionsByCategory(new Scanner("Paging\n"));
+            output = outputStream.toString();
+            assertTrue(output.contains("Question 1?"));
+            assertTrue(output.contains("Question 5?"));
+            assertFalse(output.contains("Page 1"));
+        }
+    }
+
+    // Operation Metrics Tests
+    @Nested
+    class OperationMetricsTests {
+        @BeforeEach
+        void resetMetrics() {
+            OperationMetrics.reset();
+        }
+
+        @Test
+        void testTimerPercentiles() {
+            OperationMetrics.Timer timer = OperationMetrics.QUIZ_SUMMARY;
+            for (int micros = 1; micros <= 1000; micros++) {
+                timer.record(micros * 1000L);
+            }
+            assertEquals(1000, timer.count());
+            assertEquals(500_500, timer.meanNanos(), 1e-6);
+            assertEquals(1_000_000, timer.maxNanos());
+            assertEquals(500_000, timer.percentileNanos(0.5), 100_000);
+            assertEquals(990_000, timer.percentileNanos(0.99), 200_000);
+            assertTrue(timer.percentileNanos(0.99) <= timer.maxNanos());
+            assertTrue(timer.percentileNanos(0.5) >= 500_000);
+        }
+
+        @Test
+        void testPerformanceScreenAndMicrometer() {
+            MCQApplication.questions.add(sampleQuestion);
+            QuizAttempt attempt = new QuizAttempt("", "");
+            attempt.addAnswer(sampleQuestion.getId(), 'A', true);
+            MCQApplication.displayQuizSummary(attempt);
+            OperationMetrics.QUESTIONS_IMPORTED.add(3);
+
+            outputStream.reset();
+            MCQApplication.viewPerformance();
+            String output = outputStream.toString();
+            assertTrue(output.matches("(?s).*Show quiz summary\\s+1\\s.*"));
+            assertTrue(output.matches("(?s).*Load data\\s+0\\s+-.*"));
+            assertTrue(output.contains("Questions imported: 3"));
+
+            io.micrometer.core.instrument.MeterRegistry registry =
+                new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
+            new OperationMetricsBinder().bindTo(registry);
+            assertEquals(1, registry.get("mcq.quiz.summary").functionTimer().count());
+            assertEquals(3, registry.get("mcq.questions.imported").functionCounter().count());
+            assertTrue(registry.get("mcq.quiz.summary.percentile").tag("phi", "0.99").timeGauge()
+                .value(java.util.concurrent.TimeUnit.NANOSECONDS) > 0);
+        }
+    }
+
+    // Flight Recorder Event Tests
+    @Nested
+    class FlightEventsTests {
+        @Test
+        void testOperationsEmitEvents(@TempDir java.nio.file.Path dir) throws Exception {
+            java.nio.file.Path file = dir.resolve("import.txt");
+            java.nio.file.Files.writeString(file, "One|a|b|c|d|A|Cat|Easy\nTwo|a|b|c|d|B|Cat|Easy\nbad row\n");
+            java.nio.file.Path recorded = dir.resolve("events.jfr");
+            QuestionRepository bank = new QuestionRepository();
+            CategoryIndex index = bank.register(new CategoryIndex());
+            UndoHistory undo = new UndoHistory(bank);
+
+            try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+                for (String name : List.of("mcq.ImportBatch", "mcq.UndoSnapshot", "mcq.QuizAssembly")) {
+                    recording.enable(name).withThreshold(java.time.Duration.ZERO);
+                }
+                recording.start();
+                List<Question> added = new ArrayList<>();
+                new QuestionImporter().importFile(file, batch -> {
+                    bank.addAll(batch);
+                    added.addAll(batch);
+                }, null);
+                undo.record(UndoHistory.imported(bank, added, file.toString()));
+                undo.undo();
+                undo.redo();
+                AttemptRecorder recorder = new AttemptRecorder(new QuizHistory(), new QuestionAnalytics(),
+                    new QuestionRatings(bank), new AuditTrail());
+                try (QuizEngine engine = new QuizEngine(bank, index, recorder, 1L)) {
+                    engine.start("cat", "", 1);
+                }
+                recording.stop();
+                recording.dump(recorded);
+            }
+
+            List<jdk.jfr.consumer.RecordedEvent> events = jdk.jfr.consumer.RecordingFile.readAllEvents(recorded);
+            jdk.jfr.consumer.RecordedEvent batch = events.stream()
+                .filter(e -> e.getEventType().getName().equals("mcq.ImportBatch")).findFirst().orElseThrow();
+            assertEquals(2, batch.getInt("rows"));
+            assertEquals(1, batch.getLong("rejected"));
+            assertEquals(java.nio.file.Files.size(file), batch.getLong("bytes"));
+            assertEquals(List.of("record", "undo", "redo"), events.stream()
+                .filter(e -> e.getEventType().getName().equals("mcq.UndoSnapshot"))
+                .map(e -> e.getString("action")).toList());
+            jdk.jfr.consumer.RecordedEvent assembly = events.stream()
+                .filter(e -> e.getEventType().getName().equals("mcq.QuizAssembly")).findFirst().orElseThrow();
+            assertEquals(2, assembly.getInt("poolSize"));
+            assertEquals(1, assembly.getInt("questions"));
+        }
+    }
+
+    // Deferred Startup Tests
+    @Nested
+    class DeferredStartupTests {
+        @Test
+        void testRecordsWaitIsFreeWhenLoadedUpFront() {
+            assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), () -> {
+                MCQApplication.awaitRecords();
+                MCQApplication.awaitRecords();
+            });
+
+            org.springframework.context.SmartLifecycle records =
+                new com.QuizApp.MCQ.QuizApiConfiguration().deferredRecords();
+            assertTrue(records.getPhase() < org.springframework.context.SmartLifecycle.DEFAULT_PHASE - 1024);
+            records.start();
+            assertTrue(records.isRunning());
+            records.stop();
+            assertFalse(records.isRunning());
+        }
+
+        @Test
+        void testDeferredLoaderIsJoinedBeforeRecordsAreRead(@TempDir java.nio.file.Path dir) throws Exception {
+            // A legacy history big enough that the loader is still migrating it when the first menu is shown
+            Question question = new Question("Q?", new String[]{"A", "B", "C", "D"}, 'A', "Cat", "Easy");
+            List<QuizAttempt> legacy = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                QuizSession session = new QuizSession("Cat", "Easy", List.of(question));
+                session.answer('A');
+                legacy.add(session.finish());
+            }
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    java.nio.file.Files.newOutputStream(dir.resolve("quiz_history.ser")))) {
+                out.writeObject(legacy);
+            }
+
+            // The flag is read once per JVM, so the console runs in its own, in dir
+            Process console = new ProcessBuilder(
+                    java.nio.file.Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Dmcq.startup.deferred=true", "-cp", System.getProperty("java.class.path"),
+                    MCQApplication.class.getName())
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .start();
+            // User Menu, View Quiz History straight away, Back, Exit
+            try (java.io.Writer input = new java.io.OutputStreamWriter(console.getOutputStream())) {
+                input.write("2\n3\n4\n3\n");
+            }
+            String output = new String(console.getInputStream().readAllBytes());
+            assertTrue(console.waitFor(60, java.util.concurrent.TimeUnit.SECONDS));
+            assertFalse(output.contains("No quiz history available."));
+            assertTrue(output.contains("Attempt 20000:"));
+            assertFalse(output.contains("Attempt 20001:"));
+
+            // Analytics rebuilt by the loader were complete when they were saved on exit
+            QuizHistory history = new QuizHistory();
+            history.attach(dir.resolve("quiz_history"));
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            analytics.load(dir.resolve("question_stats.bin"), history);
+            assertEquals(20000, analytics.get(question.getId()).getAttempts());
+            history.close();
+        }
+    }
+
+    // Question Ratings Tests
+    @Nested
+    class QuestionRatingsTests {
+        private final String[] options = {"A", "B", "C", "D"};
+
+        // Takes one quiz over the given questions in order, answering with the given letters (S skips)
+        private QuizAttempt play(List<Question> quiz, String answers) {
+            QuizSession session = new QuizSession("", "", quiz);
+            for (char answer : answers.toCharArray()) {
+                if (answer == 'S') {
+                    session.skip();
+                } else {
+                    session.answer(answer);
+                }
+            }
+            return session.finish();
+        }
+
+        @Test
+        void testNextFollowsAbilityCategoryAndBank() {
+            QuestionRepository bank = new QuestionRepository();
+            QuestionRatings ratings = bank.register(new QuestionRatings(bank, new Random(7)));
+            List<Question> easy = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                easy.add(new Question("Easy " + i, options, 'A', "Math", "Easy"));
+                bank.add(easy.get(i));
+                bank.add(new Question("Hard " + i, options, 'A', "Math", "Hard"));
+            }
+            Question science = new Question("Science", options, 'A', "Science", "Medium");
+            bank.add(science);
+
+            assertEquals("Easy", ratings.next(1250, "", Set.of()).getDifficultyLevel());
+            assertEquals("Hard", ratings.next(1800, "math", Set.of()).getDifficultyLevel());
+            assertEquals(science.getId(), ratings.next(1300, "Science", Set.of()).getId());
+            assertNull(ratings.next(1300, "Science", Set.of(science.getId())));
+            assertNull(ratings.next(1300, "History", Set.of()));
+            Set<UUID> asked = new HashSet<>();
+            easy.forEach(question -> asked.add(question.getId()));
+            assertNotEquals("Easy", ratings.next(1250, "", asked).getDifficultyLevel());
+
+            bank.removeById(science.getId());
+            assertNull(ratings.next(1500, "Science", Set.of()));
+        }
+
+        @Test
+        void testRatingsCalibrateFromAnswers(@TempDir java.nio.file.Path dir) throws IOException {
+            Question easy = new Question("Easy?", options, 'A', "Math", "Easy");
+            Question hard = new Question("Hard?", options, 'A', "Math", "Hard");
+            Question skipped = new Question("Skipped?", options, 'A', "Math", "Medium");
+            QuestionRepository bank = new QuestionRepository(List.of(easy, hard, skipped));
+            QuestionRatings ratings = bank.register(new QuestionRatings(bank, new Random(7)));
+            assertEquals(1300, ratings.ratingOf(easy.getId()));
+
+            QuizHistory history = new QuizHistory();
+            history.add(play(List.of(easy, hard, skipped), "BAS"));
+            ratings.record(history.get(0));
+            // Missing an easy question makes it harder; answering a hard one makes it easier
+            double missed = ratings.ratingOf(easy.getId());
+            double answered = ratings.ratingOf(hard.getId());
+            assertTrue(missed > 1300);
+            assertTrue(answered < 1700);
+            assertEquals(1500, ratings.ratingOf(skipped.getId()));
+            assertEquals(hard.getId(), ratings.next(answered, "", Set.of(easy.getId(), skipped.getId())).getId());
+
+            java.nio.file.Path file = dir.resolve("question_ratings.bin");
+            ratings.save(file, history.end());
+            java.nio.file.Path store = dir.resolve("questions.bin");
+            BinaryQuestionStore.write(store, bank);
+            QuestionRepository reopened = new QuestionRepository();
+            QuestionRatings loaded = reopened.register(new QuestionRatings(reopened, new Random(7)));
+            reopened.attach(BinaryQuestionStore.open(store));
+            loaded.load(file, history);
+            assertEquals(missed, loaded.ratingOf(easy.getId()), 1e-3);
+            // The reopened bank is ordered from the store's labels and the loaded ratings
+            assertEquals(hard.getId(), loaded.next(answered, "Math", Set.of(easy.getId(), skipped.getId())).getId());
+            assertEquals(answered, loaded.ratingOf(hard.getId()), 1e-3);
+
+            // Replaying the history gives the same ratings
+            QuestionRatings replayed = bank.register(new QuestionRatings(bank, new Random(7)));
+            replayed.rebuild(history);
+            assertEquals(missed, replayed.ratingOf(easy.getId()), 1e-3);
+            replayed.rebuild(List.of());
+            assertEquals(1300, replayed.ratingOf(easy.getId()));
+
+            // An attempt recorded after the last save is replayed on load
+            history.add(play(List.of(easy, hard, skipped), "BAS"));
+            ratings.record(history.get(1));
+            QuestionRatings caughtUp = reopened.register(new QuestionRatings(reopened, new Random(7)));
+            caughtUp.load(file, history);
+            assertEquals(ratings.ratingOf(easy.getId()), caughtUp.ratingOf(easy.getId()), 1e-3);
+            assertEquals(ratings.ratingOf(hard.getId()), caughtUp.ratingOf(hard.getId()), 1e-3);
+        }
+    }
+
+    // Journal Tests
+    @Nested
+    class JournalTests {
+        @Test
+        void testJournalReplaysChanges(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("test.journal");
+            QuestionRepository bank = new QuestionRepository();
+            QuestionJournal journal = QuestionJournal.open(file, bank);
+            bank.addListener(journal);
+
+            String[] options = {"A", "B", "C", "D"};
+            Question kept = new Question("Kept", options, 'A', "Math", "Easy");
+            Question removed = new Question("Removed", options, 'B', "Math", "Hard");
+            bank.add(kept);
+            bank.add(removed);
+            bank.update(kept, q -> q.setQuestion("Kept and edited"));
+            bank.removeById(removed.getId());
+            journal.close();
+
+            QuestionRepository replayed = new QuestionRepository();
+            QuestionJournal.open(file, replayed).close();
+
+            assertEquals(1, replayed.size());
+            Question restored = replayed.getById(kept.getId());
+            assertEquals("Kept and edited", restored.getQuestion());
+            assertEquals(kept.getCreatedAt(), restored.getCreatedAt());
+        }
+
+        @Test
+        void testFailedWriteIsKeptAndReported(@TempDir java.nio.file.Path dir) throws IOException {
+            System.setProperty("mcq.journal.commitMillis", "1000");
+            try {
+                QuestionRepository bank = new QuestionRepository();
+                QuestionJournal journal = QuestionJournal.open(dir.resolve("test.journal"), bank);
+                bank.addListener(journal);
+                bank.add(sampleQuestion);
+
+                // Writing from an interrupted thread closes the channel, so nothing can be written any more
+                Thread.currentThread().interrupt();
+                assertThrows(java.nio.channels.ClosedByInterruptException.class, journal::sync);
+                Thread.interrupted();
+                assertNotNull(journal.failure());
+                // The record is still pending, so later syncs and close fail instead of reporting success
+                assertThrows(java.nio.channels.ClosedChannelException.class, journal::sync);
+                assertThrows(java.nio.channels.ClosedChannelException.class, journal::close);
+            } finally {
+                System.clearProperty("mcq.journal.commitMillis");
+            }
+        }
+
+        @Test
+        void testTornRecordIsDropped(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("test.journal");
+            QuestionRepository bank = new QuestionRepository();
+            QuestionJournal journal = QuestionJournal.open(file, bank);
+            bank.addListener(journal);
+            bank.add(sampleQuestion);
+            journal.close();
+
+            // Simulate a crash halfway through the next record
+            java.nio.file.Files.write(file, new byte[]{0, 0, 0, 40, 1, 2},
+                java.nio.file.StandardOpenOption.APPEND);
+
+            QuestionRepository replayed = new QuestionRepository();
+            QuestionJournal reopened = QuestionJournal.open(file, replayed);
+            assertEquals(1, replayed.size());
+            assertEquals(1, reopened.records());
+            reopened.close();
+        }
+    }
+
+    // Binary Store Tests
+    @Nested
+    class BinaryStoreTests {
+        @Test
+        void testStoreRoundTrip(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            String[] options = {"Option A", "Ünïcödé B", "Option C", "Option D"};
+            Question second = new Question("Second?", options, 'B', "Math", "Hard");
+            BinaryQuestionStore.write(file, List.of(sampleQuestion, second));
+
+            BinaryQuestionStore store = BinaryQuestionStore.open(file);
+            assertEquals(2, store.size());
+            assertEquals(second.getId(), store.idAt(1));
+            assertEquals("Math", store.categoryAt(1));
+
+            Question loaded = store.load(1);
+            assertEquals("Second?", loaded.getQuestion());
+            assertArrayEquals(options, loaded.getOptions());
+            assertEquals('B', loaded.getCorrectOption());
+            assertEquals("Hard", loaded.getDifficultyLevel());
+            assertEquals(second.getCreatedAt(), loaded.getCreatedAt());
+        }
+
+        @Test
+        void testAttachedBankLoadsLazily(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            List<Question> saved = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                saved.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Cat" + (i % 2), "Easy"));
+            }
+            BinaryQuestionStore.write(file, saved);
+
+            QuestionRepository bank = new QuestionRepository();
+            bank.attach(BinaryQuestionStore.open(file));
+            assertEquals(5, bank.size());
+
+            // Deleting keeps the order; the unloaded questions after the gap move down undecoded
+            bank.removeById(saved.get(1).getId());
+            assertEquals("Q4", bank.getById(saved.get(4).getId()).getQuestion());
+            assertEquals("Q2", bank.get(1).getQuestion());
+            assertEquals("Q3", bank.get(2).getQuestion());
+            assertEquals(4, bank.size());
+            assertEquals(3, bank.indexOfId(saved.get(4).getId()));
+
+            // Undo puts it back where it was
+            bank.restore(1, saved.get(1));
+            assertEquals(List.of("Q0", "Q1", "Q2", "Q3", "Q4"), bank.stream().map(Question::getQuestion).toList());
+        }
+
+        @Test
+        void testSavesGoToNewGenerations(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path base = dir.resolve("bank.bin");
+            BinaryQuestionStore.write(base, List.of(sampleQuestion));
+            assertEquals(base, BinaryQuestionStore.current(base));
+
+            QuestionRepository bank = new QuestionRepository();
+            bank.attach(BinaryQuestionStore.open(base));
+            bank.add(new Question("Second?", new String[]{"A", "B", "C", "D"}, 'B', "Math", "Hard"));
+            java.nio.file.Path first = BinaryQuestionStore.writeGeneration(base, bank);
+            assertEquals(dir.resolve("bank.1.bin"), first);
+            assertEquals(first, BinaryQuestionStore.current(base));
+            bank.rebase(BinaryQuestionStore.open(first));
+
+            java.nio.file.Path second = BinaryQuestionStore.writeGeneration(base, bank);
+            assertEquals(dir.resolve("bank.2.bin"), second);
+            BinaryQuestionStore.deleteStale(base, second);
+            assertEquals(List.of("bank.2.bin", "bank.current"), java.nio.file.Files.list(dir)
+                .map(file -> file.getFileName().toString()).sorted().toList());
+            assertEquals(2, BinaryQuestionStore.open(BinaryQuestionStore.current(base)).size());
+        }
+
+        @Test
+        void testCategoryIndexRebuildsFromStore(@TempDir java.nio.file.Path dir) throws IOException {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            List<Question> saved = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                saved.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Cat" + (i % 2), "Easy"));
+            }
+            BinaryQuestionStore.write(file, saved);
+
+            QuestionRepository bank = new QuestionRepository();
+            CategoryIndex index = bank.register(new CategoryIndex());
+            bank.attach(BinaryQuestionStore.open(file));
+
+            assertEquals(List.of("Cat0", "Cat1"), index.categories());
+            assertEquals(List.of("Q0", "Q2", "Q4"),
+                index.find("cat0", "easy").stream().map(Question::getQuestion).toList());
+
+            bank.removeById(saved.get(0).getId());
+            bank.add(new Question("Q6", new String[]{"A", "B", "C", "D"}, 'A', "Cat0", "Easy"));
+            assertEquals(Set.of("Q2", "Q4", "Q6"),
+                index.findByCategory("Cat0").stream().map(Question::getQuestion).collect(java.util.stream.Collectors.toSet()));
+            assertEquals(3, index.findByCategory("Cat1").size());
+        }
+
+        @Test
+        void testRecencyIndexIsBuiltByItsFirstQuery(@TempDir java.nio.file.Path dir) throws Exception {
+            java.nio.file.Path file = dir.resolve("bank.bin");
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+            List<Question> saved = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                saved.add(createdOn("Q" + i, start.plusDays(i)));
+            }
+            BinaryQuestionStore.write(file, saved);
+
+            QuestionRepository bank = new QuestionRepository();
+            RecencyIndex index = bank.register(new RecencyIndex());
+            bank.attach(BinaryQuestionStore.open(file));
+
+            // A reader that never asks for recency leaves the index unbuilt, so edits until the first query are skipped
+            assertEquals(4, (int) bank.read(List::size));
+            bank.removeById(saved.get(3).getId());
+            bank.add(createdOn("Q4", start.plusDays(4)));
+
+            // The first query may come from a reader thread and still sees every edit
+            java.util.concurrent.CompletableFuture<List<String>> newest = java.util.concurrent.CompletableFuture.supplyAsync(() ->
+                bank.read(view -> index.recent(3).stream().map(Question::getQuestion).toList()));
+            assertEquals(List.of("Q4", "Q2", "Q1"), newest.get());
+
+            // Once built, the index follows edits again
+            bank.removeById(saved.get(2).getId());
+            assertEquals(List.of("Q4", "Q1", "Q0"), index.recent(3).stream().map(Question::getQuestion).toList());
+        }
+
+        private Question createdOn(String text, LocalDateTime createdAt) {
+            Question question = spy(new Question(text, new String[]{"A", "B", "C", "D"}, 'A', "Math", "Easy"));
+            doReturn(createdAt).when(question).getCreatedAt();
+            return question;
+        }
+    }
+
+    // Question Sampler Tests
+    @Nested
+    class QuestionSamplerTests {
+        @Test
+        void testSampleIsDistinctAndReproducible() {
+            List<Integer> pool = new AbstractList<Integer>() {
+                public Integer get(int index) { return index; }
+                public int size() { return 1_000_000; }
+            };
+
+            List<Integer> first = new QuestionSampler(7).sample(pool, 20);
+            assertEquals(20, first.size());
+            assertEquals(20, new HashSet<>(first).size());
+            assertEquals(first, new QuestionSampler(7).sample(pool, 20));
+        }
+
+        @Test
+        void testDrawingWholePoolIsPermutation() {
+            List<Integer> pool = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                pool.add(i);
+            }
+            List<Integer> drawn = new QuestionSampler(1).sample(pool, 50);
+            assertEquals(new HashSet<>(pool), new HashSet<>(drawn));
+            assertThrows(IllegalArgumentException.class, () -> new QuestionSampler().sample(pool, 51));
+        }
+    }
+
+    // Concurrent Quiz Session Tests
+    @Nested
+    class QuizEngineTests {
+        @Test
+        void testSessionKeepsItsOwnCopies() {
+            MCQApplication.questions.add(sampleQuestion);
+            QuizSession session = new QuizSession("", "", List.of(sampleQuestion));
+            MCQApplication.questions.update(sampleQuestion, q -> q.setCorrectOption('B'));
+
+            assertEquals('A', session.current().getCorrectOption());
+            assertTrue(session.answer('A'));
+            assertFalse(session.hasNext());
+            assertEquals(1, session.finish().getScore());
+        }
+
+        @Test
+        void testManyTakersWhileAdminEdits() throws Exception {
+            QuestionRepository bank = new QuestionRepository();
+            CategoryIndex index = bank.register(new CategoryIndex());
+            QuizHistory history = new QuizHistory();
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            QuestionRatings ratings = bank.register(new QuestionRatings(bank));
+            AuditTrail audit = new AuditTrail();
+            for (int i = 0; i < 500; i++) {
+                bank.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Cat" + (i % 5), "Easy"));
+            }
+
+            List<java.util.concurrent.CompletableFuture<QuizAttempt>> running = new ArrayList<>();
+            try (QuizEngine engine = new QuizEngine(bank, index,
+                    new AttemptRecorder(history, analytics, ratings, audit), 1L)) {
+                for (int i = 0; i < 300; i++) {
+                    running.add(engine.submit((session, question) -> 'A', i % 2 == 0 ? "" : "cat1", "", 20));
+                }
+                // Edits on this thread while the takers run
+                for (int i = 0; i < 200; i++) {
+                    Question added = new Question("New" + i, new String[]{"A", "B", "C", "D"}, 'B', "Cat1", "Easy");
+                    bank.add(added);
+                    bank.update(bank.get(i), q -> q.setCategory("Cat" + (q.getQuestion().length() % 5)));
+                    bank.removeById(added.getId());
+                }
+                for (java.util.concurrent.CompletableFuture<QuizAttempt> attempt : running) {
+                    assertEquals(20, attempt.get().getAnswers().size());
+                }
+            }
+            assertEquals(300, history.size());
+            // Taken on the engine, the quizzes count in the analytics and audit log like console quizzes
+            assertEquals(300, audit.entries().stream().filter(log -> log.getAction().equals("QUIZ")).count());
+            assertTrue(analytics.size() > 0);
+            assertNotEquals(1300, ratings.ratingOf(bank.get(0).getId()), 1e-3);
+        }
+    }
+
+    // Label Dictionary Tests
+    @Nested
+    class LabelDictionaryTests {
+        @Test
+        void testNamesShareKeysCaseInsensitively() {
+            LabelDictionary categories = LabelDictionary.CATEGORIES;
+            int exact = categories.code("Geo Graphy");
+            int loose = categories.code(" geo graphy");
+            assertNotEquals(exact, loose);
+            assertEquals(categories.key(exact), categories.key(loose));
+            assertEquals(categories.key(exact), categories.keyOf("GEO GRAPHY"));
+            assertEquals(exact, categories.code("Geo Graphy"));
+            assertEquals("Geo Graphy", categories.name(exact));
+            assertEquals(LabelDictionary.UNKNOWN, categories.keyOf("No such category " + UUID.randomUUID()));
+            assertEquals(0, LabelDictionary.DIFFICULTIES.code("Easy"));
+        }
+
+        @Test
+        void testQuestionsSerializeNamesAsBefore() throws Exception {
+            java.io.ObjectStreamClass form = java.io.ObjectStreamClass.lookup(Question.class);
+            assertEquals(String.class, form.getField("category").getType());
+            assertEquals(String.class, form.getField("difficultyLevel").getType());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            QuizAttempt attempt = new QuizAttempt("Test Category", "Easy");
+            attempt.addAnswer(sampleQuestion.getId(), 'A', true);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(sampleQuestion);
+                out.writeObject(attempt);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                Question question = (Question) in.readObject();
+                QuizAttempt restored = (QuizAttempt) in.readObject();
+                assertEquals("Test Category", question.getCategory());
+                assertEquals("Easy", question.getDifficultyLevel());
+                assertEquals(sampleQuestion.getId(), question.getId());
+                assertEquals("Test Category", restored.getCategory());
+                assertEquals(1, restored.getScore());
+            }
+        }
+    }
+
+    // REST API Tests
+    @Nested
+    class QuizApiTests {
+        @Test
+        void testQuizOverHttp() throws Exception {
+            QuestionRepository bank = new QuestionRepository();
+            CategoryIndex index = bank.register(new CategoryIndex());
+            QuizHistory history = new QuizHistory();
+            for (int i = 0; i < 3; i++) {
+                bank.add(new Question("Q" + i, new String[]{"A", "B", "C", "D"}, 'A', "Math", "Easy"));
+            }
+            bank.add(new Question("Other", new String[]{"A", "B", "C", "D"}, 'A', "Science", "Hard"));
+
+            AuditTrail audit = new AuditTrail();
+            QuestionAnalytics analytics = new QuestionAnalytics();
+            QuestionRatings ratings = bank.register(new QuestionRatings(bank));
+            try (QuizService service = new QuizService(bank, index,
+                    new AttemptRecorder(history, analytics, ratings, audit),
+                    java.time.Duration.ofMinutes(1), 10, () -> {})) {
+                WebTestClient client = WebTestClient.bindToController(new QuizController(service)).build();
+
+                client.get().uri("/api/questions?category=math").exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.length()").isEqualTo(3)
+                    .jsonPath("$[0].correctOption").doesNotExist();
+
+                client.post().uri("/api/quizzes").contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"category\":\"Math\",\"count\":4}").exchange()
+                    .expectStatus().isBadRequest();
+
+                QuizService.QuizView quiz = client.post().uri("/api/quizzes").contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"category\":\"Math\",\"count\":3}").exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(QuizService.QuizView.class).returnResult().getResponseBody();
+                assertEquals(3, quiz.questions().size());
+
+                client.post().uri("/api/quizzes/" + quiz.id() + "/answers").contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"answers\":[\"A\",\"b\"]}").exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.answered").isEqualTo(2).jsonPath("$.finished").isEqualTo(false);
+
+                client.post().uri("/api/quizzes/" + quiz.id() + "/finish").exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.summary.score").isEqualTo(1)
+                    .jsonPath("$.summary.total").isEqualTo(3)
+                    .jsonPath("$.summary.items[2].answer").isEmpty();
+
+                client.get().uri("/api/quizzes/" + UUID.randomUUID()).exchange()
+                    .expectStatus().isNotFound();
+                client.get().uri("/api/history").exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.length()").isEqualTo(1);
+            }
+            assertEquals(1, history.size());
+            assertEquals(3, analytics.size());
+            assertTrue(audit.entries().get(0).getDetails().startsWith("Completed quiz: 1/3"));
+        }
+    }
+
+    // Quiz History Store Tests
+    @Nested
+    class QuizHistoryStoreTests {
+        @Test
+        void testHistoryReopensLazilyFromSegments(@TempDir java.nio.file.Path dir) throws IOException {
+            QuizHistory history = new QuizHistory(2);
+            history.attach(dir);
+            for (int i = 0; i < 5; i++) {
+                QuizAttempt attempt = new QuizAttempt("Cat" + i, "Easy");
+                attempt.addAnswer(sampleQuestion.getId(), 'A', i % 2 == 0);
+                history.add(attempt);
+            }
+            history.close();
+
+            // Three segments; a torn write at the end of the last one is dropped
+            try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                assertEquals(3, files.filter(f -> f.toString().endsWith(".seg")).count());
+            }
+            java.nio.file.Files.write(dir.resolve("000000000004.seg"), new byte[]{0, 0, 0, 9, 1},
+                java.nio.file.StandardOpenOption.APPEND);
+
+            QuizHistory reopened = new QuizHistory(2);
+            reopened.attach(dir);
+            assertEquals(5, reopened.size());
+            QuizAttempt third = reopened.get(2);
+            assertEquals("Cat2", third.getCategory());
+            assertEquals(1, third.getScore());
+            assertEquals(1, third.getAnswers().size());
+
+            reopened.add(new QuizAttempt("Cat5", "Hard"));
+            assertEquals("Cat5", reopened.get(5).getCategory());
+            reopened.close();
+        }
+
+        @Test
+        void testResetHidesHistoryUntilClosed(@TempDir java.nio.file.Path dir) throws IOException {
+            QuizHistory history = new QuizHistory(2);
+            history.attach(dir);
+            for (int i = 0; i < 3; i++) {
+                history.add(new QuizAttempt("Cat" + i, "Easy"));
+            }
+
+            long start = history.hideAll();
+            assertTrue(history.isEmpty());
+            history.unhide(start);
+            assertEquals(3, history.size());
+
+            history.hideAll();
+            history.add(new QuizAttempt("After", "Hard"));
+            history.close();
+
+            QuizHistory reopened = new QuizHistory(2);
+            reopened.attach(dir);
+            assertEquals(1, reopened.size());
+            assertEquals("After", reopened.get(0).getCategory());
+            // Only the segment holding the new attempt is left
+            try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                assertEquals(1, files.filter(f -> f.toString().endsWith(".seg")).count());
+            }
+        }
+    }
+
     // Database Reset Tests
     @Nested
     class DatabaseResetTests {
@@ -712,6 +2152,26 @@ public class MCQApplicationTest {
             assertTrue(MCQApplication.quizHistory.isEmpty());
         }
 
+        @Test
+        void testResetTakesAnalyticsAndRatingsUntilUndone() {
+            MCQApplication.questions.add(sampleQuestion);
+            QuizSession session = new QuizSession("", "", List.of(sampleQuestion));
+            session.answer('B');
+            QuizAttempt attempt = session.finish();
+            MCQApplication.questionAnalytics.record(attempt, session.responseMillis());
+            MCQApplication.questionRatings.record(attempt);
+            double rated = MCQApplication.questionRatings.ratingOf(sampleQuestion.getId());
+            assertTrue(rated > 1300);
+
+            MCQApplication.resetDatabase(new Scanner("y\n"));
+            assertNull(MCQApplication.questionAnalytics.get(sampleQuestion.getId()));
+            assertEquals(1500, MCQApplication.questionRatings.ratingOf(sampleQuestion.getId()), 1e-3);
+
+            MCQApplication.undoLastOperation();
+            assertEquals(1, MCQApplication.questionAnalytics.get(sampleQuestion.getId()).getAttempts());
+            assertEquals(rated, MCQApplication.questionRatings.ratingOf(sampleQuestion.getId()), 1e-3);
+        }
+
         @Test
         void testDatabaseResetCancellation() {
             MCQApplication.questions.add(sampleQuestion);